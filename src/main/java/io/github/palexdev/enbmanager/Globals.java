@@ -71,7 +71,6 @@ public class Globals {
             "- [ScenivView](https://github.com/JonathanGiles/scenic-view)\n" +
             "- [Spring Boot](https://spring.io/projects/spring-boot)\n" +
             "- [OSHI](https://github.com/oshi/oshi)\n" +
-            "- [DirectoryWatcher](https://github.com/gmethvin/directory-watcher)\n" +
             "- [IntelliJ_Idea](https://www.jetbrains.com/idea/)\n";
     public static String SUPPORT =
         "# Support\n" +
@@ -28,6 +28,10 @@ public class Res {
         return Res.class.getResourceAsStream("assets/" + name);
     }
 
+    public static InputStream loadProfile(String name) {
+        return Res.class.getResourceAsStream("profiles/" + name);
+    }
+
     public static String loadViewCss(String name) {
         return load("css/views/" + name);
     }
@@ -2,7 +2,7 @@ package io.github.palexdev.enbmanager.components;
 
 import io.github.palexdev.enbmanager.components.misc.CheckColumn;
 import io.github.palexdev.enbmanager.components.misc.SelectionModel;
-import io.github.palexdev.enbmanager.utils.FileUtils;
+import io.github.palexdev.enbmanager.model.FileEntry;
 import io.github.palexdev.materialfx.utils.ListChangeProcessor;
 import io.github.palexdev.mfxcomponents.controls.base.MFXStyleable;
 import io.github.palexdev.mfxcore.utils.fx.ListChangeHelper;
@@ -15,22 +15,19 @@ import io.github.palexdev.virtualizedfx.table.defaults.SimpleTableCell;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
-import java.time.format.FormatStyle;
 import java.util.List;
 import java.util.Set;
 
-public class FilesTable extends VirtualTable<Path> implements MFXStyleable {
+/**
+ * Table of {@link FileEntry FileEntries}. Cells only show the entries' precomputed strings, so that rendering never
+ * touches the disk.
+ */
+public class FilesTable extends VirtualTable<FileEntry> implements MFXStyleable {
     //================================================================================
     // Properties
     //================================================================================
-    private final SelectionModel<Path> model = new SelectionModel<>();
-    private final ListChangeListener<? super Path> itemsChanged = this::itemsChanged;
+    private final SelectionModel<FileEntry> model = new SelectionModel<>();
+    private final ListChangeListener<? super FileEntry> itemsChanged = this::itemsChanged;
 
     //================================================================================
     // Constructors
@@ -39,7 +36,7 @@ public class FilesTable extends VirtualTable<Path> implements MFXStyleable {
         initialize();
     }
 
-    public FilesTable(ObservableList<Path> items) {
+    public FilesTable(ObservableList<FileEntry> items) {
         super();
         setItems(items);
         initialize();
@@ -60,32 +57,21 @@ public class FilesTable extends VirtualTable<Path> implements MFXStyleable {
         });
         getItems().addListener(itemsChanged);
 
-        DateTimeFormatter dtf = DateTimeFormatter.ofLocalizedDateTime(FormatStyle.MEDIUM);
-        CheckColumn<Path> checkColumn = new CheckColumn<>(this);
-        DefaultTableColumn<Path, TableCell<Path>> name = new DefaultTableColumn<>(this, "Name");
-        name.setCellFactory(p -> new SimpleTableCell<>(p, Path::getFileName));
-        DefaultTableColumn<Path, TableCell<Path>> folder = new DefaultTableColumn<>(this, "Parent");
-        folder.setCellFactory(p -> new SimpleTableCell<>(p, cp -> cp.getParent().getFileName()));
-        DefaultTableColumn<Path, TableCell<Path>> modified = new DefaultTableColumn<>(this, "Last Modified");
-        modified.setCellFactory(p -> new SimpleTableCell<>(p, cp -> {
-            Instant instant = Instant.ofEpochMilli(cp.toFile().lastModified());
-            LocalDateTime ldt = LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
-            return dtf.format(ldt);
-        }));
-        DefaultTableColumn<Path, TableCell<Path>> type = new DefaultTableColumn<>(this, "Type");
-        type.setCellFactory(p -> new SimpleTableCell<>(p, cp -> {
-            if (Files.isDirectory(cp)) return "Directory";
-            return "File";
-        }));
-        DefaultTableColumn<Path, TableCell<Path>> size = new DefaultTableColumn<>(this, "Size");
-        size.setCellFactory(p -> new SimpleTableCell<>(p, cp -> {
-            if (Files.isDirectory(cp)) return "";
-            return FileUtils.sizeToString(cp.toFile());
-        }));
+        CheckColumn<FileEntry> checkColumn = new CheckColumn<>(this);
+        DefaultTableColumn<FileEntry, TableCell<FileEntry>> name = new DefaultTableColumn<>(this, "Name");
+        name.setCellFactory(p -> new SimpleTableCell<>(p, FileEntry::name));
+        DefaultTableColumn<FileEntry, TableCell<FileEntry>> folder = new DefaultTableColumn<>(this, "Parent");
+        folder.setCellFactory(p -> new SimpleTableCell<>(p, FileEntry::parent));
+        DefaultTableColumn<FileEntry, TableCell<FileEntry>> modified = new DefaultTableColumn<>(this, "Last Modified");
+        modified.setCellFactory(p -> new SimpleTableCell<>(p, FileEntry::modifiedText));
+        DefaultTableColumn<FileEntry, TableCell<FileEntry>> type = new DefaultTableColumn<>(this, "Type");
+        type.setCellFactory(p -> new SimpleTableCell<>(p, FileEntry::typeText));
+        DefaultTableColumn<FileEntry, TableCell<FileEntry>> size = new DefaultTableColumn<>(this, "Size");
+        size.setCellFactory(p -> new SimpleTableCell<>(p, FileEntry::sizeText));
         getColumns().addAll(checkColumn, name, folder, modified, type, size);
     }
 
-    protected void itemsChanged(ListChangeListener.Change<? extends Path> change) {
+    protected void itemsChanged(ListChangeListener.Change<? extends FileEntry> change) {
         if (model.getSelection().isEmpty()) return;
         if (change.getList().isEmpty()) {
             model.clearSelection();
@@ -127,7 +113,7 @@ public class FilesTable extends VirtualTable<Path> implements MFXStyleable {
     //================================================================================
     // Getters
     //================================================================================
-    public SelectionModel<Path> getSelectionModel() {
+    public SelectionModel<FileEntry> getSelectionModel() {
         return model;
     }
 
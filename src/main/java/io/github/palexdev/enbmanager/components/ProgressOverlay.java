@@ -0,0 +1,100 @@
+package io.github.palexdev.enbmanager.components;
+
+import io.github.palexdev.enbmanager.utils.CopyProgress;
+import io.github.palexdev.enbmanager.utils.CopyProgress.Snapshot;
+import io.github.palexdev.enbmanager.utils.FileUtils;
+import io.github.palexdev.mfxcomponents.controls.buttons.MFXButton;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+
+import java.util.Optional;
+
+/**
+ * Scrim shown over the views while a repository operation is running, it blocks interactions with the content
+ * below and displays the last {@link Snapshot} of the operation's {@link CopyProgress}, which can also be cancelled.
+ */
+public class ProgressOverlay extends StackPane {
+    //================================================================================
+    // Properties
+    //================================================================================
+    private final Label operationLabel;
+    private final ProgressBar bar;
+    private final Label detailsLabel;
+    private final Label fileLabel;
+    private final MFXButton cancel;
+    private CopyProgress progress;
+
+    //================================================================================
+    // Constructors
+    //================================================================================
+    public ProgressOverlay() {
+        operationLabel = new Label();
+        operationLabel.getStyleClass().add("operation");
+
+        bar = new ProgressBar(ProgressBar.INDETERMINATE_PROGRESS);
+        bar.setMaxWidth(Double.MAX_VALUE);
+
+        detailsLabel = new Label();
+        detailsLabel.getStyleClass().add("details");
+        fileLabel = new Label();
+        fileLabel.getStyleClass().add("file");
+
+        cancel = new MFXButton("Cancel").text();
+        cancel.setOnAction(e -> {
+            if (progress != null) progress.cancel();
+            cancel.setDisable(true);
+        });
+
+        VBox box = new VBox(operationLabel, bar, detailsLabel, fileLabel, cancel);
+        box.getStyleClass().add("box");
+        box.setMaxSize(USE_PREF_SIZE, USE_PREF_SIZE);
+
+        getChildren().add(box);
+        getStyleClass().add("progress-overlay");
+        setVisible(false);
+    }
+
+    //================================================================================
+    // Methods
+    //================================================================================
+
+    /**
+     * Shows the overlay for the given progress and updates it with the given snapshot, or hides it if the operation
+     * is done.
+     */
+    public void update(CopyProgress progress, Snapshot snapshot) {
+        if (snapshot.done()) {
+            if (this.progress == progress) hide();
+            return;
+        }
+        if (this.progress != progress) {
+            this.progress = progress;
+            cancel.setDisable(false);
+        }
+
+        operationLabel.setText(snapshot.operation());
+        bar.setProgress(snapshot.fraction() >= 0 ? snapshot.fraction() : ProgressBar.INDETERMINATE_PROGRESS);
+        String details = (snapshot.filesTotal() >= 0) ?
+            "%d/%d files".formatted(snapshot.filesDone(), snapshot.filesTotal()) :
+            "%d files".formatted(snapshot.filesDone());
+        if (snapshot.bytesTotal() >= 0) {
+            details += " | %s/%s | %s/s".formatted(
+                FileUtils.sizeToString(snapshot.bytesDone()),
+                FileUtils.sizeToString(snapshot.bytesTotal()),
+                FileUtils.sizeToString((long) snapshot.bytesPerSecond())
+            );
+        }
+        detailsLabel.setText(details);
+        fileLabel.setText(Optional.ofNullable(snapshot.currentFile())
+            .map(p -> p.getFileName().toString())
+            .orElse(""));
+        setVisible(true);
+    }
+
+    public void hide() {
+        progress = null;
+        setVisible(false);
+    }
+}
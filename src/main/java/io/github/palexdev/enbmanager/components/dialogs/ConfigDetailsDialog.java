@@ -1,14 +1,22 @@
 package io.github.palexdev.enbmanager.components.dialogs;
 
+import io.github.palexdev.enbmanager.SpringHelper;
 import io.github.palexdev.enbmanager.components.FilesTable;
+import io.github.palexdev.enbmanager.model.FileEntry;
+import io.github.palexdev.enbmanager.model.TaskGroups;
 import io.github.palexdev.enbmanager.model.repo.Config;
+import io.github.palexdev.enbmanager.utils.UIUtils;
 import io.github.palexdev.mfxcore.observables.When;
 import io.github.palexdev.virtualizedfx.controls.VirtualScrollPane;
 import io.github.palexdev.virtualizedfx.utils.VSPUtils;
+import javafx.application.Platform;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 
+import java.io.IOException;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletionException;
 
 public class ConfigDetailsDialog extends DialogBase {
     //================================================================================
@@ -72,11 +80,23 @@ public class ConfigDetailsDialog extends DialogBase {
     //================================================================================
     protected void initDialog() {
         Config config = getConfig();
-        if (config != null) {
-            table.getItems().setAll(config.files());
-            return;
-        }
         table.getItems().clear();
+        if (config == null) return;
+        SpringHelper.getBean(TaskGroups.class).group("repo-io").supply(() -> {
+            try {
+                List<FileEntry> entries = config.entries();
+                entries.sort(FileEntry.COMPARATOR);
+                return entries;
+            } catch (IOException ex) {
+                throw new CompletionException(ex);
+            }
+        }).whenComplete((entries, ex) -> Platform.runLater(() -> {
+            if (ex != null) UIUtils.showError("Failed to list the files of %s".formatted(config.name()), ex);
+            // Another config may have been selected in the meantime
+            if (entries == null || !Objects.equals(config, getConfig())) return;
+            table.getItems().setAll(entries);
+            table.autosizeColumns();
+        }));
     }
 
     //================================================================================
@@ -1,6 +1,7 @@
 package io.github.palexdev.enbmanager.components.misc;
 
 import io.github.palexdev.enbmanager.components.FilesTable;
+import io.github.palexdev.enbmanager.model.FileEntry;
 import io.github.palexdev.mfxcomponents.controls.checkbox.MFXCheckBox;
 import io.github.palexdev.mfxcomponents.theming.enums.PseudoClasses;
 import io.github.palexdev.mfxcore.builders.bindings.BooleanBindingBuilder;
@@ -12,8 +13,6 @@ import javafx.beans.property.*;
 import javafx.scene.Node;
 import javafx.scene.layout.HBox;
 
-import java.nio.file.Path;
-
 public class CheckCell<T> extends HBox implements TableCell<T> {
     //================================================================================
     // Properties
@@ -50,7 +49,7 @@ public class CheckCell<T> extends HBox implements TableCell<T> {
     protected void initSelection() {
         VirtualTable<T> table = column.getTable();
         if (!(table instanceof FilesTable ft)) return;
-        SelectionModel<Path> model = ft.getSelectionModel();
+        SelectionModel<FileEntry> model = ft.getSelectionModel();
 
         selected.bind(BooleanBindingBuilder.build()
             .setMapper(() -> {
@@ -68,7 +67,7 @@ public class CheckCell<T> extends HBox implements TableCell<T> {
         if (column == null) return;
         if (!(column.getTable() instanceof FilesTable ft)) return;
 
-        SelectionModel<Path> model = ft.getSelectionModel();
+        SelectionModel<FileEntry> model = ft.getSelectionModel();
         int index = getIndex();
         if (checked) {
             model.updateSelection(index);
@@ -1,6 +1,7 @@
 package io.github.palexdev.enbmanager.components.misc;
 
 import io.github.palexdev.enbmanager.components.FilesTable;
+import io.github.palexdev.enbmanager.model.FileEntry;
 import io.github.palexdev.mfxcomponents.behaviors.MFXCheckBoxBehavior;
 import io.github.palexdev.mfxcomponents.controls.MaterialSurface;
 import io.github.palexdev.mfxcomponents.controls.checkbox.MFXCheckBox;
@@ -15,8 +16,6 @@ import javafx.geometry.HPos;
 import javafx.geometry.VPos;
 import javafx.scene.control.Skin;
 
-import java.nio.file.Path;
-
 public class CheckColumn<T> extends DefaultTableColumn<T, CheckCell<T>> {
     //================================================================================
     // Properties
@@ -29,7 +28,7 @@ public class CheckColumn<T> extends DefaultTableColumn<T, CheckCell<T>> {
     public CheckColumn(VirtualTable<T> table) {
         super(table);
         FilesTable ft = (FilesTable) table;
-        SelectionModel<Path> model = ft.getSelectionModel();
+        SelectionModel<FileEntry> model = ft.getSelectionModel();
 
         checkbox = new MFXCheckBox() {
             @Override
@@ -55,7 +54,7 @@ public class CheckColumn<T> extends DefaultTableColumn<T, CheckCell<T>> {
         });
         checkbox.selectedProperty().bind(BooleanBindingBuilder.build()
             .setMapper(() -> {
-                ObservableMap<Integer, Path> selection = model.getSelection();
+                ObservableMap<Integer, FileEntry> selection = model.getSelection();
                 return selection.size() == table.getItems().size() && table.getItems().size() > 0;
             })
             .addSources(model.getSelection())
@@ -64,7 +63,7 @@ public class CheckColumn<T> extends DefaultTableColumn<T, CheckCell<T>> {
         );
         checkbox.indeterminateProperty().bind(BooleanBindingBuilder.build()
             .setMapper(() -> {
-                ObservableMap<Integer, Path> selection = model.getSelection();
+                ObservableMap<Integer, FileEntry> selection = model.getSelection();
                 return selection.size() > 0 && selection.size() < table.getItems().size();
             })
             .addSources(model.getSelection())
@@ -90,8 +89,8 @@ public class CheckColumn<T> extends DefaultTableColumn<T, CheckCell<T>> {
     protected void handleSelection() {
         VirtualTable<T> table = getTable();
         if (table instanceof FilesTable ft) {
-            SelectionModel<Path> model = ft.getSelectionModel();
-            ObservableMap<Integer, Path> selection = model.getSelection();
+            SelectionModel<FileEntry> model = ft.getSelectionModel();
+            ObservableMap<Integer, FileEntry> selection = model.getSelection();
             int nItems = table.getItems().size();
             if (selection.isEmpty()) {
                 checkbox.setIndeterminate(false);
@@ -4,15 +4,38 @@ import io.github.palexdev.enbmanager.model.repo.Config;
 import org.springframework.context.ApplicationEvent;
 
 import java.util.Collection;
+import java.util.List;
 
+/**
+ * Published when the configs of the current game change.
+ * <p>
+ * The event carries the full list of configs, in order, and the {@link Change changes} since the previous event.
+ * Applying them in order to the previous list gives the new one, so that listeners can update their lists with
+ * minimal edits. A {@link #isReset() reset} event has no changes, the whole list should be replaced.
+ */
 @SuppressWarnings("unchecked")
 public class ConfigsChangedEvent extends ApplicationEvent {
+    //================================================================================
+    // Properties
+    //================================================================================
+    private final List<Change> changes;
+    private final boolean reset;
 
     //================================================================================
     // Constructors
     //================================================================================
     public ConfigsChangedEvent(Collection<Config> configs) {
+        this(configs, List.of(), true);
+    }
+
+    public ConfigsChangedEvent(Collection<Config> configs, List<Change> changes) {
+        this(configs, changes, false);
+    }
+
+    protected ConfigsChangedEvent(Collection<Config> configs, List<Change> changes, boolean reset) {
         super(configs);
+        this.changes = changes;
+        this.reset = reset;
     }
 
     //================================================================================
@@ -21,4 +44,26 @@ public class ConfigsChangedEvent extends ApplicationEvent {
     public Collection<Config> getConfigs() {
         return (Collection<Config>) getSource();
     }
+
+    public List<Change> getChanges() {
+        return changes;
+    }
+
+    public boolean isReset() {
+        return reset;
+    }
+
+    //================================================================================
+    // Internal Classes
+    //================================================================================
+
+    /**
+     * @param index the position affected by the change, in the list as it is when the change is applied
+     * @param config the added or updated config, or the removed one
+     */
+    public record Change(Type type, int index, Config config) {
+        public enum Type {
+            ADDED, REMOVED, UPDATED
+        }
+    }
 }
@@ -0,0 +1,29 @@
+package io.github.palexdev.enbmanager.events;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when a detection profile file changes, the source is the name of the game whose profile changed, or
+ * null if all the profiles may have changed.
+ */
+public class ProfileChangedEvent extends ApplicationEvent {
+
+    //================================================================================
+    // Constructors
+    //================================================================================
+    public ProfileChangedEvent(String game) {
+        super(game == null ? "" : game);
+    }
+
+    //================================================================================
+    // Getters
+    //================================================================================
+
+    /**
+     * @return the name of the game whose profile changed, or null if all the profiles may have changed
+     */
+    public String getGame() {
+        String game = (String) getSource();
+        return game.isEmpty() ? null : game;
+    }
+}
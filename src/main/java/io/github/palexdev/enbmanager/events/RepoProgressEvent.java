@@ -0,0 +1,30 @@
+package io.github.palexdev.enbmanager.events;
+
+import io.github.palexdev.enbmanager.utils.CopyProgress;
+import org.springframework.context.ApplicationEvent;
+
+public class RepoProgressEvent extends ApplicationEvent {
+    //================================================================================
+    // Properties
+    //================================================================================
+    private final CopyProgress.Snapshot snapshot;
+
+    //================================================================================
+    // Constructors
+    //================================================================================
+    public RepoProgressEvent(CopyProgress progress) {
+        super(progress);
+        this.snapshot = progress.snapshot();
+    }
+
+    //================================================================================
+    // Getters
+    //================================================================================
+    public CopyProgress getProgress() {
+        return (CopyProgress) getSource();
+    }
+
+    public CopyProgress.Snapshot getSnapshot() {
+        return snapshot;
+    }
+}
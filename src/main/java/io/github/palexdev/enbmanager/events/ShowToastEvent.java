@@ -3,12 +3,27 @@ package io.github.palexdev.enbmanager.events;
 import org.springframework.context.ApplicationEvent;
 
 public class ShowToastEvent extends ApplicationEvent {
+    //================================================================================
+    // Properties
+    //================================================================================
+    private final String actionText;
+    private final Runnable action;
 
     //================================================================================
     // Constructors
     //================================================================================
     public ShowToastEvent(String message) {
+        this(message, null, null);
+    }
+
+    /**
+     * Requests a toast with a button that runs the given action, for example to undo the operation described by the
+     * message. Such toasts stay visible longer, see {@link io.github.palexdev.enbmanager.settings.AppSettings#getUndoWindow()}.
+     */
+    public ShowToastEvent(String message, String actionText, Runnable action) {
         super(message);
+        this.actionText = actionText;
+        this.action = action;
     }
 
     //================================================================================
@@ -17,4 +32,16 @@ public class ShowToastEvent extends ApplicationEvent {
     public String getMessage() {
         return (String) getSource();
     }
+
+    public String getActionText() {
+        return actionText;
+    }
+
+    public Runnable getAction() {
+        return action;
+    }
+
+    public boolean hasAction() {
+        return action != null;
+    }
 }
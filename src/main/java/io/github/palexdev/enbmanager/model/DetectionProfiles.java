@@ -0,0 +1,156 @@
+package io.github.palexdev.enbmanager.model;
+
+import io.github.palexdev.enbmanager.Res;
+import io.github.palexdev.enbmanager.SpringHelper;
+import io.github.palexdev.enbmanager.events.ProfileChangedEvent;
+import io.github.palexdev.enbmanager.model.games.Game;
+import io.github.palexdev.enbmanager.utils.AppDirs;
+import io.github.palexdev.enbmanager.utils.UIUtils;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Provides the detection profile of each game, compiled into {@link TrackedFiles}.
+ * <p>
+ * A game's profile is read from the first of these that exists:
+ * <ol>
+ *     <li>{@code <repo>/profiles/<game name>.txt}, the user's profile for the game</li>
+ *     <li>{@code <repo>/files.txt}, the legacy list of names shared by all games</li>
+ *     <li>the built-in default profile</li>
+ * </ol>
+ * A user profile can include the default one with a {@link #INCLUDE_DEFAULT} line. If the repository can't be used,
+ * only the built-in profile is available.
+ * <p>
+ * Compiled profiles are cached. The profiles directory is watched so that edits are picked up while the app runs:
+ * the cached profile is dropped and a {@link ProfileChangedEvent} is published.
+ */
+@Component
+public class DetectionProfiles {
+    //================================================================================
+    // Static Properties
+    //================================================================================
+    public static final String DIR_NAME = "profiles";
+    public static final String DEFAULT_PROFILE = "default.txt";
+    public static final String LEGACY_FILE = "files.txt";
+    public static final String INCLUDE_DEFAULT = "@default";
+
+    //================================================================================
+    // Properties
+    //================================================================================
+    private final Path repoPath;
+    private final Map<String, TrackedFiles> cache = new ConcurrentHashMap<>();
+    private List<String> defaultPatterns;
+
+    //================================================================================
+    // Constructors
+    //================================================================================
+    public DetectionProfiles(AppDirs dirs, FileWatchService watchService) {
+        this.repoPath = dirs.getConfigPath();
+        if (repoPath != null) startWatcher(watchService);
+    }
+
+    //================================================================================
+    // Methods
+    //================================================================================
+
+    /**
+     * @return the compiled detection profile for the given game
+     */
+    public TrackedFiles get(Game game) {
+        String name = (game != null) ? game.name() : "";
+        return cache.computeIfAbsent(name, n -> new TrackedFiles(readPatterns(n)));
+    }
+
+    protected List<String> readPatterns(String game) {
+        if (repoPath == null) return getDefaultPatterns();
+        List<Path> candidates = new ArrayList<>();
+        if (!game.isEmpty()) candidates.add(getProfilePath(game));
+        candidates.add(repoPath.resolve(LEGACY_FILE));
+        for (Path file : candidates) {
+            if (!Files.isRegularFile(file)) continue;
+            try {
+                List<String> patterns = new ArrayList<>();
+                for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                    if (line.strip().equals(INCLUDE_DEFAULT)) {
+                        patterns.addAll(getDefaultPatterns());
+                    } else {
+                        parseLine(line, patterns);
+                    }
+                }
+                return patterns;
+            } catch (IOException ex) {
+                UIUtils.showError("Failed to read the detection profile %s".formatted(file.getFileName()), ex);
+            }
+        }
+        return getDefaultPatterns();
+    }
+
+    protected synchronized List<String> getDefaultPatterns() {
+        if (defaultPatterns == null) {
+            List<String> patterns = new ArrayList<>();
+            try (InputStream is = Res.loadProfile(DEFAULT_PROFILE);
+                 BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    parseLine(line, patterns);
+                }
+            } catch (IOException | NullPointerException ex) {
+                UIUtils.showError("Failed to read the default detection profile", ex);
+            }
+            defaultPatterns = List.copyOf(patterns);
+        }
+        return defaultPatterns;
+    }
+
+    protected void parseLine(String line, List<String> patterns) {
+        String pattern = line.strip();
+        if (pattern.isEmpty() || pattern.startsWith("#")) return;
+        patterns.add(pattern);
+    }
+
+    protected void startWatcher(FileWatchService watchService) {
+        Path dir = repoPath.resolve(DIR_NAME);
+        try {
+            Files.createDirectories(dir);
+            watchService.subscribe("profiles", p -> p.getFileName().toString().endsWith(".txt"), this::onProfileEvent)
+                .watch(dir);
+        } catch (IOException ex) {
+            UIUtils.showError("Changes to the detection profiles won't be detected automatically", ex);
+        }
+    }
+
+    protected void onProfileEvent(FileEvent event) {
+        if (event.kind() == FileEvent.Kind.OVERFLOW) {
+            cache.clear();
+            SpringHelper.notify(new ProfileChangedEvent(null));
+            return;
+        }
+        String fileName = event.path().getFileName().toString();
+        String game = fileName.substring(0, fileName.length() - 4);
+        cache.remove(game);
+        SpringHelper.notify(new ProfileChangedEvent(game));
+    }
+
+    //================================================================================
+    // Getters
+    //================================================================================
+
+    /**
+     * @return the path of the user's profile for the given game, or null if the repository can't be used
+     */
+    public Path getProfilePath(String game) {
+        if (repoPath == null) return null;
+        return repoPath.resolve(DIR_NAME).resolve(game + ".txt");
+    }
+}
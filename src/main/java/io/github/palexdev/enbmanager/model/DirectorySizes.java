@@ -0,0 +1,141 @@
+package io.github.palexdev.enbmanager.model;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Computes the recursive size and file count of directories on a low-priority background worker.
+ * <p>
+ * Results are cached for every directory of the computed trees, not just for the requested ones. When a file changes,
+ * {@link #invalidate(Path)} drops only the cached values of its ancestors, so recomputing a directory only reads the
+ * directories on the changed path, all the others come from the cache.
+ * <p>
+ * Symbolic links are not followed.
+ */
+public class DirectorySizes implements AutoCloseable {
+    //================================================================================
+    // Properties
+    //================================================================================
+    private final ExecutorService worker;
+    private final Map<Path, DirSize> cache = new ConcurrentHashMap<>();
+    private final AtomicLong epoch = new AtomicLong();
+    private volatile long generation = 0;
+
+    //================================================================================
+    // Constructors
+    //================================================================================
+    public DirectorySizes() {
+        worker = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "dir-sizes");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+    }
+
+    //================================================================================
+    // Methods
+    //================================================================================
+
+    /**
+     * @return a future completed with the size of the given directory, immediately if cached. The future is
+     * cancelled if {@link #clear()} is called before the computation starts or ends
+     */
+    public CompletableFuture<DirSize> compute(Path dir) {
+        DirSize cached = cache.get(dir);
+        if (cached != null) return CompletableFuture.completedFuture(cached);
+        long gen = generation;
+        CompletableFuture<DirSize> future = new CompletableFuture<>();
+        try {
+            worker.execute(() -> {
+                try {
+                    future.complete(computeNow(dir, gen));
+                } catch (Exception ex) {
+                    future.completeExceptionally(ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            future.cancel(false);
+        }
+        return future;
+    }
+
+    protected DirSize computeNow(Path dir, long gen) throws IOException {
+        if (gen != generation) throw new CancellationException();
+        DirSize cached = cache.get(dir);
+        if (cached != null) return cached;
+
+        long start = epoch.get();
+        long size = 0, files = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path child : stream) {
+                BasicFileAttributes attrs;
+                try {
+                    attrs = Files.readAttributes(child, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                } catch (NoSuchFileException ex) {
+                    continue;
+                }
+                if (attrs.isDirectory()) {
+                    DirSize sub = computeNow(child, gen);
+                    size += sub.size();
+                    files += sub.files();
+                } else {
+                    size += attrs.size();
+                    files++;
+                }
+            }
+        }
+        DirSize result = new DirSize(size, files);
+        // Don't cache values that may have been invalidated while computing them
+        if (epoch.get() == start) cache.put(dir, result);
+        return result;
+    }
+
+    /**
+     * Drops the cached values affected by a change of the given path: its own, if it is a directory, and the ones of
+     * its ancestors.
+     */
+    public void invalidate(Path path) {
+        epoch.incrementAndGet();
+        for (Path p = path; p != null; p = p.getParent()) {
+            cache.remove(p);
+        }
+    }
+
+    /**
+     * Drops the cached values of the given directory and of all its content, to use when it is deleted.
+     */
+    public void invalidateTree(Path dir) {
+        invalidate(dir);
+        cache.keySet().removeIf(p -> p.startsWith(dir));
+    }
+
+    /**
+     * Drops all the cached values and cancels the pending computations.
+     */
+    public void clear() {
+        generation++;
+        epoch.incrementAndGet();
+        cache.clear();
+    }
+
+    @Override
+    public void close() {
+        clear();
+        worker.shutdownNow();
+    }
+
+    //================================================================================
+    // Internal Classes
+    //================================================================================
+
+    /**
+     * @param size  the total size in bytes of the files in a directory, recursively
+     * @param files the number of files in a directory, recursively
+     */
+    public record DirSize(long size, long files) {}
+}
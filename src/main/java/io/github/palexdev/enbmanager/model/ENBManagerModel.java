@@ -5,14 +5,16 @@ import io.github.palexdev.enbmanager.components.dialogs.DialogServiceBase;
 import io.github.palexdev.enbmanager.components.dialogs.DialogServiceBase.DialogConfig;
 import io.github.palexdev.enbmanager.events.AppCloseEvent;
 import io.github.palexdev.enbmanager.events.ConfigsChangedEvent;
+import io.github.palexdev.enbmanager.events.ProfileChangedEvent;
 import io.github.palexdev.enbmanager.model.games.Game;
 import io.github.palexdev.enbmanager.model.repo.Config;
+import io.github.palexdev.enbmanager.model.repo.LoadReport;
 import io.github.palexdev.enbmanager.model.repo.Repo;
-import io.github.palexdev.enbmanager.utils.FileUtils;
-import io.github.palexdev.enbmanager.utils.PathsComparator;
+import io.github.palexdev.enbmanager.settings.AppSettings;
+import io.github.palexdev.enbmanager.utils.EventCoalescer;
+import io.github.palexdev.enbmanager.utils.UIUtils;
 import io.github.palexdev.enbmanager.views.MainView;
 import io.github.palexdev.mfxcore.collections.TransformableListWrapper;
-import io.methvin.watcher.DirectoryWatcher;
 import javafx.application.Platform;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
@@ -22,17 +24,15 @@ import javafx.stage.Modality;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
-import java.io.FileNotFoundException;
+import java.io.Closeable;
 import java.io.IOException;
-import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Collection;
-import java.util.Set;
+import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Component
 public class ENBManagerModel {
@@ -52,83 +52,299 @@ public class ENBManagerModel {
         }
     };
     private final ObservableList<Config> configs = FXCollections.observableArrayList();
-    private final TransformableListWrapper<Path> files = new TransformableListWrapper<>(FXCollections.observableArrayList());
-    private final Set<String> fileNames;
+    private final ObservableList<FileEntry> filesSource = FXCollections.observableArrayList();
+    private final TransformableListWrapper<FileEntry> files = new TransformableListWrapper<>(filesSource);
+    private volatile TrackedFiles tracked;
 
-    private final Executor executor;
-    private DirectoryWatcher watcher;
-    private CompletableFuture<Void> watcherTask;
+    private final TaskGroups.TaskGroup io;
+    private final TaskGroups.TaskGroup repoIO;
+    private final Lock watcherLock = new ReentrantLock();
+    private final AtomicLong scans = new AtomicLong();
+    private long appliedScan = 0;
+    private Closeable watcher;
+    private final EventCoalescer<FileEvent> coalescer;
+    private final DirectorySizes sizes = new DirectorySizes();
 
     private final DialogServiceBase dialogs;
     private final Repo repo;
+    private final Trash trash;
+    private final WriteTracker writes;
+    private final FileWatchService watchService;
+    private final DetectionProfiles profiles;
+    private final AppSettings settings;
 
     //================================================================================
     // Constructors
     //================================================================================
-    public ENBManagerModel(DialogServiceBase dialogs, Repo repo) {
+    public ENBManagerModel(DialogServiceBase dialogs, Repo repo, Trash trash, WriteTracker writes,
+                           FileWatchService watchService, TaskGroups tasks, DetectionProfiles profiles,
+                           AppSettings settings) {
         this.dialogs = dialogs;
         this.repo = repo;
-        executor = Executors.newFixedThreadPool(2, r -> {
-            Thread t = new Thread(r);
-            t.setDaemon(true);
-            return t;
-        });
-        files.setComparator(PathsComparator.instance());
-        fileNames = getFileNames();
+        this.trash = trash;
+        this.writes = writes;
+        this.watchService = watchService;
+        this.profiles = profiles;
+        this.settings = settings;
+        io = tasks.group("model-io");
+        repoIO = tasks.group("repo-io");
+        coalescer = new EventCoalescer<>(
+            "files-watch-coalescer", settings.getWatchQuietWindow(), FileEvent::path, this::onFilesChanged
+        );
+        files.setComparator(FileEntry.COMPARATOR);
+        tracked = profiles.get(null);
     }
 
     /* Actions */
-    public boolean load(Config config) {
-        return repo.loadConfig(getPath(), config);
+    /**
+     * Loads the given config in the current game's directory.
+     * <p>
+     * The changes made by the load itself are ignored by the watcher, the files list is rescanned once it is done.
+     *
+     * @return a future completed with the load report, or null if the config could not be loaded
+     * @see Repo#loadConfig(Path, Config, Collection)
+     */
+    public CompletableFuture<LoadReport> load(Config config) {
+        Path root = getPath();
+        List<Path> installed = getFilePaths();
+        // The config's files may still need to be enumerated
+        return config.filesAsync(repoIO).thenCompose(files -> {
+            // Installed files are deleted only if pruning, otherwise their changes are someone else's
+            List<Path> written = new ArrayList<>();
+            if (repo.isPruneOnLoad()) written.addAll(installed);
+            files.forEach(f -> written.add(root.resolve(config.path().relativize(f))));
+            WriteTracker.Operation op = writes.begin(root, written);
+            CompletableFuture<LoadReport> future = repo.loadConfig(root, config, installed);
+            future.whenComplete((r, ex) -> op.end(() -> reconcile(root)));
+            return future;
+        });
     }
 
-    public boolean save(String name, Collection<? extends Path> files) {
-        if (name.isBlank()) return false;
-        return repo.saveConfig(getPath(), name, files);
+    public CompletableFuture<Boolean> save(String name, Collection<? extends Path> files) {
+        if (name.isBlank()) return CompletableFuture.completedFuture(false);
+        return repo.saveConfig(getPath(), name, List.copyOf(files));
     }
 
-    public boolean delete(Config config) {
+    /**
+     * @see Repo#deleteConfig(Config)
+     */
+    public CompletableFuture<Trash.Item> delete(Config config) {
         return repo.deleteConfig(config);
     }
 
-    public boolean delete(Collection<Path> files) {
+    /**
+     * @see Repo#restoreConfig(Trash.Item)
+     */
+    public CompletableFuture<Boolean> restoreConfig(Trash.Item item) {
+        return repo.restoreConfig(item);
+    }
+
+    /**
+     * Moves the given files to the {@link Trash} of the game's directory.
+     *
+     * @return the trashed item, which can be {@link #restore(Trash.Item) restored}
+     * @throws IOException if the files could not be deleted, those already trashed are moved back
+     */
+    public Trash.Item delete(Collection<Path> files) throws IOException {
+        Path root = getPath();
+        WriteTracker.Operation op = writes.begin(root, files);
+        try {
+            return trash.trash(root, files, null);
+        } finally {
+            op.end(() -> reconcile(root));
+        }
+    }
+
+    /**
+     * Moves back the given files deleted with {@link #delete(Collection)}.
+     *
+     * @return false if the undo window expired
+     * @throws IOException if the files could not be restored
+     */
+    public boolean restore(Trash.Item item) throws IOException {
+        Path root = getPath();
+        WriteTracker.Operation op = writes.begin(root, item.entries().keySet());
         try {
-            for (Path file : files) {
-                FileUtils.delete(file);
-            }
-            return true;
-        } catch (IOException ex) {
-            ex.printStackTrace(); // TODO improve?
-            return false;
+            return trash.restore(item);
+        } finally {
+            op.end(() -> reconcile(root));
         }
     }
 
     /* Model and FileSystem */
     protected void onGameChanged() {
-        CompletableFuture.runAsync(() -> {
+        // The path is always set after the game, which triggers the scan with the new profile
+        tracked = profiles.get(getGame());
+        repoIO.execute(() -> {
             Game game = getGame();
             repo.getConfigsRepo(game);
         });
     }
 
     protected void onPathChanged() {
-        CompletableFuture.runAsync(() -> {
+        io.execute(() -> {
             updateFiles();
             updateWatcher();
-        }, executor);
+            Path path = getPath();
+            if (path != null) trash.purge(path, null);
+        });
     }
 
+    /**
+     * Scans the game's directory for the tracked files. Scans may run concurrently, the list shows the result of the
+     * most recent one.
+     */
     public void updateFiles() {
+        long scan = scans.incrementAndGet();
         Path path = getPath();
         if (path == null || !Files.isDirectory(path)) {
             files.clear();
             return;
         }
-        Set<Path> files = fileNames.stream()
-            .map(path::resolve)
-            .filter(Files::exists)
-            .collect(Collectors.toSet());
-        Platform.runLater(() -> this.files.setAll(files));
+        // Also the fallback when events were lost, so sizes can't be trusted anymore
+        sizes.clear();
+        List<FileEntry> entries = new ArrayList<>();
+        try {
+            for (Path file : tracked.scan(path)) {
+                FileEntry entry = FileEntry.read(file);
+                if (entry != null) entries.add(entry);
+            }
+        } catch (IOException ex) {
+            UIUtils.showError("Failed to scan the game's directory", ex);
+            entries.clear();
+        }
+        Platform.runLater(() -> {
+            if (scan < appliedScan) return;
+            appliedScan = scan;
+            this.files.setAll(entries);
+        });
+        entries.stream()
+            .filter(FileEntry::directory)
+            .forEach(e -> updateSize(path, e.path()));
+    }
+
+    /**
+     * Entry point of the watcher events. The ones caused by the app's own operations, see {@link WriteTracker}, are
+     * dropped here, before being batched, as those operations {@link #reconcile(Path) rescan} the files when done.
+     */
+    protected void onFileEvent(FileEvent event) {
+        if (event.kind() != FileEvent.Kind.OVERFLOW && writes.isSelfWrite(event.path())) return;
+        coalescer.accept(event);
+    }
+
+    /**
+     * Rescans the files after an operation of the app in the given directory, if it's still the game's directory.
+     */
+    protected void reconcile(Path root) {
+        if (!Objects.equals(root, getPath())) return;
+        io.execute(this::updateFiles);
+    }
+
+    /**
+     * Applies a batch of changes in the game's directory to the files list, rather than checking every tracked name
+     * again as {@link #updateFiles()} does. Only changes to tracked paths, to their contents or to their parents
+     * are considered, everything else is ignored. The list is updated with a single trip to the JavaFX thread and
+     * minimal edits: insertions, removals, or replacements to refresh the entries.
+     * <p>
+     * Events are batched by the {@link EventCoalescer}, so that bursts result in a single update.
+     */
+    protected void onFilesChanged(List<FileEvent> events) {
+        Path root = getPath();
+        if (root == null) return;
+        Set<Path> affected = new LinkedHashSet<>();
+        for (FileEvent event : events) {
+            if (event.path() != null) {
+                if (event.kind() == FileEvent.Kind.DELETE) {
+                    sizes.invalidateTree(event.path());
+                } else {
+                    sizes.invalidate(event.path());
+                }
+            }
+            if (!collectAffected(root, event, affected)) {
+                updateFiles();
+                return;
+            }
+        }
+        if (!affected.isEmpty()) applyFileChanges(root, affected);
+    }
+
+    /**
+     * Adds the tracked paths affected by the given event to the given set.
+     *
+     * @return false if the whole directory must be checked again
+     */
+    protected boolean collectAffected(Path root, FileEvent event, Set<Path> affected) {
+        Path changed = event.path();
+        if (event.kind() == FileEvent.Kind.OVERFLOW || changed == null || changed.equals(root)) {
+            // Events were lost, or the root itself changed
+            return false;
+        }
+        if (!changed.startsWith(root)) return true;
+
+        // A change inside a tracked directory refreshes the directory's entry
+        Path rel = root.relativize(changed);
+        Path entry = tracked.trackedAncestor(rel);
+        if (entry != null) {
+            affected.add(entry);
+            return true;
+        }
+        // A parent of tracked paths was created or deleted, e.g. Data for Data/Shaders, the names of its content
+        // are unknown, as they are matched ignoring case
+        return !tracked.isParent(rel);
+    }
+
+    protected void applyFileChanges(Path root, Collection<Path> tracked) {
+        // Null entries stand for deleted files
+        Map<Path, FileEntry> changes = new LinkedHashMap<>();
+        for (Path p : tracked) {
+            Path file = root.resolve(p);
+            try {
+                changes.put(file, FileEntry.read(file));
+            } catch (IOException ex) {
+                // The file may be changing right now, the scan handles it as any other failure
+                updateFiles();
+                return;
+            }
+        }
+        Platform.runLater(() -> {
+            // The game's directory may have changed in the meantime
+            if (!root.equals(getPath())) return;
+            changes.forEach((file, entry) -> {
+                int index = indexOf(file);
+                if (entry != null && index < 0) {
+                    filesSource.add(entry);
+                } else if (entry == null && index >= 0) {
+                    filesSource.remove(index);
+                } else if (entry != null) {
+                    // Keep showing the previous size until the new one is computed
+                    FileEntry old = filesSource.get(index);
+                    if (entry.directory() && old.directory() && old.isSizeKnown())
+                        entry = entry.withSize(old.size(), old.count());
+                    filesSource.set(index, entry);
+                }
+                if (entry != null && entry.directory()) updateSize(root, file);
+            });
+        });
+    }
+
+    /**
+     * Computes the size of the given directory in background, then updates its entry.
+     */
+    protected void updateSize(Path root, Path dir) {
+        sizes.compute(dir).thenAccept(size -> Platform.runLater(() -> {
+            if (!root.equals(getPath())) return;
+            int index = indexOf(dir);
+            if (index < 0) return;
+            FileEntry entry = filesSource.get(index);
+            if (entry.directory()) filesSource.set(index, entry.withSize(size.size(), size.files()));
+        }));
+    }
+
+    protected int indexOf(Path file) {
+        for (int i = 0; i < filesSource.size(); i++) {
+            if (filesSource.get(i).path().equals(file)) return i;
+        }
+        return -1;
     }
 
     public void refreshConfigs() {
@@ -136,19 +352,22 @@ public class ENBManagerModel {
     }
 
     protected void updateWatcher() {
+        // May be called by concurrent tasks
+        watcherLock.lock();
         try {
             Path path = getPath();
             if (watcher != null) {
                 watcher.close();
-                watcherTask.cancel(true);
                 watcher = null;
-                watcherTask = null;
             }
-            watcher = DirectoryWatcher.builder()
-                .path(path)
-                .listener(e -> updateFiles())
-                .build();
-            watcherTask = watcher.watchAsync(executor);
+            coalescer.clear();
+            if (path == null) return;
+            if ("recursive".equals(settings.getWatchMode())) {
+                // Legacy mode, watches the whole game's directory
+                watcher = watchService.subscribe("game-dir", null, this::onFileEvent).watchTree(path);
+            } else {
+                watcher = new ShallowWatcher(watchService, path, tracked, this::onFileEvent);
+            }
         } catch (IOException ex) {
             dialogs.showDialog(MainView.class, DialogBase.error(),
                 () -> new DialogConfig<>()
@@ -156,31 +375,86 @@ public class ENBManagerModel {
                     .setShowMinimize(false)
                     .setShowAlwaysOnTop(false)
                     .setModality(Modality.APPLICATION_MODAL)
-                    .setHeaderText("Failed to build DirectoryWatcher service!")
+                    .setHeaderText("Failed to watch the game directory!")
                     .setContentText(
                         "Changes made to the game directory won't be detected automatically." +
                             "Reason: %s".formatted(ex.getMessage())
                     )
             );
+        } finally {
+            watcherLock.unlock();
         }
     }
 
     //================================================================================
     // Events
     //================================================================================
+    /**
+     * Applies the changes to the configs list with minimal edits, so that only the cells of the affected configs are
+     * updated and the selection is preserved.
+     */
     @EventListener
     public void onConfigsChanged(ConfigsChangedEvent event) {
-        configs.clear();
-        configs.addAll(event.getConfigs());
-        /* TODO setAll fails, VirtualizedFX bug. FIX ME
-         *  possible solution, treat setAll as clear and then set, but preserve cells
-         */
+        // Repo operations run in background, the list must be updated on the JavaFX thread
+        List<Config> configs = List.copyOf(event.getConfigs());
+        List<ConfigsChangedEvent.Change> changes = event.getChanges();
+        Runnable update = () -> {
+            if (event.isReset() || !applyChanges(changes)) {
+                // The list is out of sync, replace everything
+                this.configs.clear();
+                this.configs.addAll(configs);
+                /* TODO setAll fails, VirtualizedFX bug. FIX ME
+                 *  possible solution, treat setAll as clear and then set, but preserve cells
+                 */
+            }
+        };
+        if (Platform.isFxApplicationThread()) {
+            update.run();
+        } else {
+            Platform.runLater(update);
+        }
+    }
+
+    /**
+     * @return false if the changes don't match the current list
+     */
+    protected boolean applyChanges(List<ConfigsChangedEvent.Change> changes) {
+        for (ConfigsChangedEvent.Change change : changes) {
+            int index = change.index();
+            switch (change.type()) {
+                case ADDED -> {
+                    if (index > configs.size()) return false;
+                    configs.add(index, change.config());
+                }
+                case REMOVED -> {
+                    if (index >= configs.size() || !configs.get(index).equals(change.config())) return false;
+                    configs.remove(index);
+                }
+                case UPDATED -> {
+                    if (index >= configs.size() || !configs.get(index).equals(change.config())) return false;
+                    configs.set(index, change.config());
+                }
+            }
+        }
+        return true;
+    }
+
+    @EventListener
+    public void onProfileChanged(ProfileChangedEvent event) {
+        Game game = getGame();
+        if (event.getGame() != null && (game == null || !event.getGame().equals(game.name()))) return;
+        tracked = profiles.get(game);
+        io.execute(() -> {
+            updateFiles();
+            updateWatcher();
+        });
     }
 
     @EventListener
     public void onExit(AppCloseEvent event) {
+        coalescer.close();
+        sizes.close();
         try {
-            if (watcherTask != null) watcherTask.cancel(true);
             if (watcher != null) watcher.close();
         } catch (Exception ignored) {}
     }
@@ -224,57 +498,26 @@ public class ENBManagerModel {
     /**
      * @return an unmodifiable list containing all the detected config files in the game's directory
      */
-    public ObservableList<Path> getFiles() {
+    public ObservableList<FileEntry> getFiles() {
         return FXCollections.unmodifiableObservableList(files);
     }
 
+    /**
+     * @return the paths of the detected config files in the game's directory
+     */
+    public List<Path> getFilePaths() {
+        return files.stream().map(FileEntry::path).toList();
+    }
+
     public void setPath(Path path) {
         this.path.set(path);
     }
 
-    public Set<String> getFileNames() {
-        if (fileNames == null) {
-            // Try loading from file
-            try {
-                Path repoPath = repo.getRepoPath();
-                Path file = repoPath.resolve("files.txt");
-                if (!Files.exists(file) || !file.toFile().isFile())
-                    throw new FileNotFoundException();
-                return Set.copyOf(Files.readAllLines(file));
-            } catch (Exception ex) {
-                // TODO this need to be wrote to file!
-                return Set.of(
-                    // Folders
-                    "enbcache", "enbseries", "exes", "injFX_Shaders",
-                    "_sample_enbraindrops", "ReShade", "reshade-shaders", "SweetFX",
-                    "Data" + FileSystems.getDefault().getSeparator() + "Shaders",
-                    // Files
-                    "common.fhx", "d3d9.dll", "d3d9.fx", "d3d9injFX.dll",
-                    "d3d9SFX.dll", "d3d9_aa.dll", "d3dcompiler_46e.dll", "d3d9_fx.dll",
-                    "d3d9_fxaa.dll", "d3d9_SFX.dll", "d3d9_SFX_FXAA.dll", "d3d9_SFX_SMAA.dll",
-                    "d3d9_Sharpen.dll", "d3d9_smaa.dll", "d3d9_SweetFX.dll", "d3d11.dll",
-                    "d3dx9.dll", "dxgi.dll", "dxgi.fx", "dxgi.ini",
-                    "eax.dll", "EED_verasansmono.bmp", "effect.txt", "enb.dll",
-                    "enbadaptation.fx", "enbbloom.fx", "enbdepthoffield.fx", "enbdepthoffield.fx.ini",
-                    "enbdepthoffield.ini", "enbeffect.fx", "enbeffectpostpass.fx", "enbeffectprepass.fx",
-                    "enbhelper.dll", "enbhost.exe", "ENBInjector.exe", "enbinjector.ini",
-                    "enblens.fx", "enblensmask.png", "enblensmask.bmp", "enblocal.ini",
-                    "enbpalette.bmp", "enbpatch.ini", "enbraindrops.dds", "enbraindrops_small.dds",
-                    "enbraindrops.png", "enbraindrops_small.png", "enbraindrops.tga", "enbraindrops_small.tga",
-                    "enbseries.ini", "enbseries.dll", "enbspectrum.bmp", "enbsunsprite.bmp",
-                    "enbsunsprite.fx", "enbsunsprite.tga", "enbunderwater.fx", "enbweather.bmp",
-                    "enbunderwaternoise.bmp", "EnhancedENBDiagnostics.fxh", "FixForBrightObjects.txt", "FXAA.dll",
-                    "FXAA_d3d9.dll", "FXAA_Tool.exe", "injector.ini", "injFX_Settings.h",
-                    "injFXAA.dll", "INSTALL.txt", "lens.fx", "license.txt",
-                    "license_en.txt", "license_ru.txt", "log.txt", "log.log",
-                    "ParallaxMod.txt", "readme_en.txt", "ReShade.fx", "shader.fx",
-                    "SkyrimCustomShader_Config.h", "SMAA.fx", "SMAA.h", "Sweet.fx",
-                    "Sweetfx_d3d9.dll", "SweetFX_preset.txt", "SweetFX_settings.txt", "technique.fxh",
-                    "uninstall.exe", "_weatherlist.ini", "aaa.ini", "bbb.ini",
-                    "other_d3d9.dll"
-                );
-            }
-        }
-        return fileNames;
+    /**
+     * @return the counters of the coalescer between the game's directory watcher and the files list, to check how
+     * many events are merged into a single update
+     */
+    public EventCoalescer.Stats getWatchStats() {
+        return coalescer.getStats();
     }
 }
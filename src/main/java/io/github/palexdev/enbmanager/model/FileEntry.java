@@ -0,0 +1,113 @@
+package io.github.palexdev.enbmanager.model;
+
+import io.github.palexdev.enbmanager.utils.FileUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.util.Comparator;
+
+/**
+ * Immutable snapshot of a file's attributes, as shown by the files tables.
+ * <p>
+ * Entries are meant to be built off the JavaFX thread, with a single bulk read of the attributes, see
+ * {@link #read(Path)}, and replaced when the file changes. The display strings are computed once, so rendering,
+ * recycling cells and sorting never touch the disk.
+ *
+ * @param name         the file name
+ * @param parent       the name of the parent directory
+ * @param size         the size in bytes, for directories the recursive size of their content, -1 if unknown
+ * @param count        the number of files, 1 for files, for directories the recursive count of their content,
+ *                     -1 if unknown
+ * @param modified     the modification time in milliseconds since the epoch
+ * @param sizeText     the formatted size, empty if unknown
+ * @param modifiedText the formatted modification time
+ */
+public record FileEntry(
+    Path path, String name, String parent, boolean directory,
+    long size, long count, long modified, String sizeText, String modifiedText
+) {
+    //================================================================================
+    // Static Properties
+    //================================================================================
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofLocalizedDateTime(FormatStyle.MEDIUM);
+
+    /**
+     * Directories first, then by name.
+     */
+    public static final Comparator<FileEntry> COMPARATOR = Comparator.comparing(FileEntry::directory)
+        .reversed()
+        .thenComparing(FileEntry::name);
+
+    //================================================================================
+    // Constructors
+    //================================================================================
+    public static FileEntry of(Path path, boolean directory, long size, long modified) {
+        return of(path, directory, size, directory ? -1 : 1, modified);
+    }
+
+    public static FileEntry of(Path path, boolean directory, long size, long count, long modified) {
+        Path fileName = path.getFileName();
+        Path parent = path.getParent();
+        Path parentName = (parent != null) ? parent.getFileName() : null;
+        return new FileEntry(
+            path,
+            (fileName != null) ? fileName.toString() : path.toString(),
+            (parentName != null) ? parentName.toString() : "",
+            directory, size, count, modified,
+            sizeText(directory, size, count),
+            DATE_FORMATTER.format(LocalDateTime.ofInstant(Instant.ofEpochMilli(modified), ZoneId.systemDefault()))
+        );
+    }
+
+    /**
+     * Reads the attributes of the given file.
+     *
+     * @return the file's entry, or null if the file does not exist
+     */
+    public static FileEntry read(Path path) throws IOException {
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException ex) {
+            // May be a broken link
+            if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) return null;
+            attrs = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        }
+        boolean directory = attrs.isDirectory();
+        return of(path, directory, directory ? -1 : attrs.size(), attrs.lastModifiedTime().toMillis());
+    }
+
+    private static String sizeText(boolean directory, long size, long count) {
+        if (size < 0) return "";
+        String text = FileUtils.sizeToString(size);
+        return (directory && count >= 0) ? "%s (%d files)".formatted(text, count) : text;
+    }
+
+    //================================================================================
+    // Methods
+    //================================================================================
+
+    /**
+     * @return a copy of this entry with the given size and file count
+     */
+    public FileEntry withSize(long size, long count) {
+        return new FileEntry(path, name, parent, directory, size, count, modified, sizeText(directory, size, count), modifiedText);
+    }
+
+    public boolean isSizeKnown() {
+        return size >= 0;
+    }
+
+    public String typeText() {
+        return directory ? "Directory" : "File";
+    }
+}
@@ -0,0 +1,19 @@
+package io.github.palexdev.enbmanager.model;
+
+import java.nio.file.Path;
+
+/**
+ * A change in a watched directory, see {@link FileWatchService}.
+ *
+ * @param path      the absolute path of the changed file, null for {@link Kind#OVERFLOW}
+ * @param directory whether the path is a directory, only known for creations
+ */
+public record FileEvent(Kind kind, Path path, boolean directory) {
+    public enum Kind {
+        CREATE, MODIFY, DELETE,
+        /**
+         * Some events were lost, the whole directory should be checked again.
+         */
+        OVERFLOW
+    }
+}
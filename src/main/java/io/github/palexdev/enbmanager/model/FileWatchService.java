@@ -0,0 +1,312 @@
+package io.github.palexdev.enbmanager.model;
+
+import io.github.palexdev.enbmanager.events.AppCloseEvent;
+import io.github.palexdev.enbmanager.utils.UIUtils;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * The app's single file watcher. Components {@link #subscribe(String, Predicate, Consumer) subscribe} with a filter and
+ * a listener, then tell which directories they are interested in. All subscriptions are served by one native
+ * {@link WatchService} and one dispatcher thread, and each directory is registered with the OS only once, no matter how
+ * many subscriptions watch it.
+ * <p>
+ * Listeners are called on the dispatcher thread, so they should be quick and hand heavy work off to other threads.
+ * <p>
+ * Everything is shut down on {@link AppCloseEvent}.
+ */
+@Component
+public class FileWatchService {
+    //================================================================================
+    // Properties
+    //================================================================================
+    private final Map<WatchKey, Registration> keys = new HashMap<>();
+    private final Map<Path, Registration> dirs = new HashMap<>();
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private WatchService service;
+    private volatile boolean closed = false;
+
+    //================================================================================
+    // Methods
+    //================================================================================
+
+    /**
+     * Creates a new subscription, which doesn't watch anything until directories are added to it.
+     *
+     * @param name     identifies the subscription in the stats
+     * @param filter   the paths the listener is interested in, null to accept everything. Overflow events, which
+     *                 have no path, are always delivered
+     * @param listener the consumer of the events
+     */
+    public Subscription subscribe(String name, Predicate<Path> filter, Consumer<FileEvent> listener) {
+        Subscription sub = new Subscription(name, filter, listener);
+        subscriptions.add(sub);
+        return sub;
+    }
+
+    protected synchronized void register(Subscription sub, Path dir, boolean tree) throws IOException {
+        if (closed) throw new ClosedWatchServiceException();
+        if (service == null) start();
+        Registration reg = dirs.get(dir);
+        if (reg == null) {
+            WatchKey key = dir.register(service, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+            reg = new Registration(dir, key);
+            dirs.put(dir, reg);
+            keys.put(key, reg);
+        }
+        reg.subs.merge(sub, tree, Boolean::logicalOr);
+        sub.dirs.add(dir);
+    }
+
+    protected void registerTree(Subscription sub, Path dir, boolean notify) throws IOException {
+        Files.walkFileTree(dir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path d, BasicFileAttributes attrs) throws IOException {
+                register(sub, d, true);
+                if (notify && !d.equals(dir)) sub.deliver(new FileEvent(FileEvent.Kind.CREATE, d, true));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                // Files created before the directory was registered would be missed otherwise
+                if (notify) sub.deliver(new FileEvent(FileEvent.Kind.CREATE, file, false));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    protected synchronized void unregister(Subscription sub, Path dir) {
+        sub.dirs.remove(dir);
+        Registration reg = dirs.get(dir);
+        if (reg == null) return;
+        reg.subs.remove(sub);
+        if (reg.subs.isEmpty()) {
+            reg.key.cancel();
+            dirs.remove(dir);
+            keys.remove(reg.key);
+        }
+    }
+
+    protected void start() throws IOException {
+        service = FileSystems.getDefault().newWatchService();
+        Thread t = new Thread(this::dispatch, "file-watch");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    protected void dispatch() {
+        while (!closed) {
+            WatchKey key;
+            try {
+                key = service.take();
+            } catch (InterruptedException | ClosedWatchServiceException ex) {
+                return;
+            }
+            Path dir;
+            Map<Subscription, Boolean> subs;
+            synchronized (this) {
+                Registration reg = keys.get(key);
+                dir = (reg != null) ? reg.dir : null;
+                subs = (reg != null) ? Map.copyOf(reg.subs) : Map.of();
+            }
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == OVERFLOW) {
+                    subs.keySet().forEach(s -> s.deliver(new FileEvent(FileEvent.Kind.OVERFLOW, null, false)));
+                    continue;
+                }
+                if (dir == null) continue;
+                Path path = dir.resolve((Path) event.context());
+                FileEvent.Kind kind = (event.kind() == ENTRY_CREATE) ? FileEvent.Kind.CREATE :
+                    (event.kind() == ENTRY_DELETE) ? FileEvent.Kind.DELETE : FileEvent.Kind.MODIFY;
+                boolean directory = kind == FileEvent.Kind.CREATE && Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS);
+                FileEvent fe = new FileEvent(kind, path, directory);
+                subs.forEach((sub, tree) -> {
+                    sub.deliver(fe);
+                    if (directory && tree) {
+                        try {
+                            registerTree(sub, path, true);
+                        } catch (IOException ex) {
+                            UIUtils.showError("Changes in %s won't be detected automatically".formatted(path), ex);
+                        }
+                    }
+                });
+            }
+            if (!key.reset()) {
+                synchronized (this) {
+                    Registration reg = keys.remove(key);
+                    if (reg != null) {
+                        dirs.remove(reg.dir);
+                        reg.subs.keySet().forEach(s -> s.dirs.remove(reg.dir));
+                    }
+                }
+            }
+        }
+    }
+
+    //================================================================================
+    // Events
+    //================================================================================
+    @EventListener
+    public void onExit(AppCloseEvent event) {
+        synchronized (this) {
+            closed = true;
+            keys.clear();
+            dirs.clear();
+            try {
+                if (service != null) service.close();
+            } catch (IOException ignored) {}
+        }
+        subscriptions.forEach(s -> s.closed = true);
+        subscriptions.clear();
+    }
+
+    //================================================================================
+    // Getters
+    //================================================================================
+
+    /**
+     * @return the number of directories registered with the OS
+     */
+    public synchronized int getWatchCount() {
+        return dirs.size();
+    }
+
+    /**
+     * @return the stats of every active subscription
+     */
+    public List<Stats> getStats() {
+        return subscriptions.stream().map(Subscription::getStats).toList();
+    }
+
+    //================================================================================
+    // Internal Classes
+    //================================================================================
+
+    /**
+     * A consumer of the events of some directories. Closing it releases the directories' registrations which are not
+     * shared with other subscriptions.
+     */
+    public class Subscription implements Closeable {
+        private final String name;
+        private final Predicate<Path> filter;
+        private final Consumer<FileEvent> listener;
+        private final Set<Path> dirs = ConcurrentHashMap.newKeySet();
+        private final LongAdder received = new LongAdder();
+        private final LongAdder delivered = new LongAdder();
+        private final long created = System.nanoTime();
+        private long second;
+        private long inSecond;
+        private long peak;
+        private volatile boolean closed = false;
+
+        Subscription(String name, Predicate<Path> filter, Consumer<FileEvent> listener) {
+            this.name = name;
+            this.filter = filter;
+            this.listener = listener;
+        }
+
+        /**
+         * Watches the given directory, but not its subdirectories.
+         */
+        public Subscription watch(Path dir) throws IOException {
+            register(this, dir, false);
+            return this;
+        }
+
+        /**
+         * Watches the given directory and all its subdirectories, including the ones created later.
+         */
+        public Subscription watchTree(Path dir) throws IOException {
+            registerTree(this, dir, false);
+            return this;
+        }
+
+        /**
+         * Stops watching the given directory.
+         */
+        public void unwatch(Path dir) {
+            unregister(this, dir);
+        }
+
+        protected void deliver(FileEvent event) {
+            if (closed) return;
+            received.increment();
+            if (event.path() != null && filter != null && !filter.test(event.path())) return;
+            delivered.increment();
+            synchronized (this) {
+                long now = (System.nanoTime() - created) / 1_000_000_000L;
+                if (now != second) {
+                    second = now;
+                    inSecond = 0;
+                }
+                peak = Math.max(peak, ++inSecond);
+            }
+            try {
+                listener.accept(event);
+            } catch (Exception ex) {
+                UIUtils.showError("Failed to handle a file change", ex);
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            subscriptions.remove(this);
+            for (Path dir : List.copyOf(dirs)) unregister(this, dir);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the number of directories watched by this subscription
+         */
+        public int getWatchCount() {
+            return dirs.size();
+        }
+
+        public synchronized Stats getStats() {
+            double seconds = Math.max(1.0, (System.nanoTime() - created) / 1e9);
+            return new Stats(name, dirs.size(), received.sum(), delivered.sum(), delivered.sum() / seconds, peak);
+        }
+    }
+
+    /**
+     * @param watches   the number of directories watched
+     * @param received  the number of events received for the watched directories
+     * @param delivered the number of events which passed the filter and reached the listener
+     * @param rate      the average number of delivered events per second since the subscription was created
+     * @param peak      the highest number of events delivered within a second
+     */
+    public record Stats(String name, int watches, long received, long delivered, double rate, long peak) {}
+
+    private static class Registration {
+        private final Path dir;
+        private final WatchKey key;
+        private final Map<Subscription, Boolean> subs = new HashMap<>();
+
+        Registration(Path dir, WatchKey key) {
+            this.dir = dir;
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package io.github.palexdev.enbmanager.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Watches a game's directory without walking it.
+ * <p>
+ * Only the tracked paths are watched recursively, and only if they are directories. The root and the parents of
+ * tracked paths, e.g. {@code Data} for {@code Data/Shaders}, are watched non-recursively, just to detect when tracked
+ * paths are created or deleted. Events for anything else are dropped. This way the number of watches and the cost of
+ * starting the watcher depend on the tracked ENB/ReShade files, not on the size of the game or of its mods.
+ * <p>
+ * Files are never hashed: a modification is reported only if the file's size or modification time actually changed
+ * since the last event for it.
+ * <p>
+ * The directories are watched through a subscription to the {@link FileWatchService}.
+ */
+public class ShallowWatcher implements Closeable {
+    //================================================================================
+    // Properties
+    //================================================================================
+    private final Path root;
+    private final TrackedFiles tracked;
+    private final Consumer<FileEvent> listener;
+    private final FileWatchService.Subscription subscription;
+    private final Map<Path, Stamp> stamps = new ConcurrentHashMap<>();
+
+    //================================================================================
+    // Constructors
+    //================================================================================
+
+    /**
+     * @param root the game's directory
+     */
+    public ShallowWatcher(FileWatchService watchService, Path root, TrackedFiles tracked, Consumer<FileEvent> listener) throws IOException {
+        this.root = root;
+        this.tracked = tracked;
+        this.listener = listener;
+        this.subscription = watchService.subscribe("game-dir", p -> isRelevant(root.relativize(p)), this::onEvent);
+        try {
+            register(root);
+        } catch (IOException ex) {
+            subscription.close();
+            throw ex;
+        }
+    }
+
+    //================================================================================
+    // Methods
+    //================================================================================
+    protected void onEvent(FileEvent event) {
+        try {
+            process(event);
+        } catch (IOException ex) {
+            // The change is unknown, so let the listener check everything again
+            listener.accept(new FileEvent(FileEvent.Kind.OVERFLOW, null, false));
+        }
+    }
+
+    protected void process(FileEvent event) throws IOException {
+        Path path = event.path();
+        switch (event.kind()) {
+            case OVERFLOW -> {
+                listener.accept(event);
+                return;
+            }
+            case DELETE -> {
+                stamps.keySet().removeIf(p -> p.startsWith(path));
+                listener.accept(event);
+                return;
+            }
+        }
+
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (NoSuchFileException ex) {
+            // Already gone, the delete event will follow
+            return;
+        }
+        boolean directory = attrs.isDirectory();
+        if (event.kind() == FileEvent.Kind.CREATE) {
+            if (directory) register(path);
+            stamps.put(path, Stamp.of(attrs));
+            listener.accept(new FileEvent(FileEvent.Kind.CREATE, path, directory));
+            return;
+        }
+
+        // Directories are modified whenever their content changes, which is already reported
+        if (directory) return;
+        Stamp stamp = Stamp.of(attrs);
+        if (stamp.equals(stamps.put(path, stamp))) return;
+        listener.accept(event);
+    }
+
+    /**
+     * Registers the given directory, recursively only if it is or is inside a tracked path. The existing children
+     * which are tracked or parents of tracked paths are registered too.
+     */
+    protected void register(Path dir) throws IOException {
+        Path rel = root.relativize(dir);
+        Path ancestor = tracked.trackedAncestor(rel);
+        if (ancestor != null) {
+            // Directories created inside a tracked one are registered by the service
+            if (ancestor.equals(rel)) subscription.watchTree(dir);
+            return;
+        }
+        if (!dir.equals(root) && !tracked.isParent(rel)) return;
+        subscription.watch(dir);
+        // Children may have been created before the directory was registered
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path child : stream) {
+                Path childRel = root.relativize(child);
+                if ((tracked.isTracked(childRel) || tracked.isParent(childRel)) &&
+                    Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) register(child);
+            }
+        }
+    }
+
+    /**
+     * @return whether the given path, relative to the root, is tracked, inside a tracked path or the parent of one
+     */
+    protected boolean isRelevant(Path rel) {
+        return tracked.trackedAncestor(rel) != null || tracked.isParent(rel);
+    }
+
+    @Override
+    public void close() {
+        subscription.close();
+    }
+
+    //================================================================================
+    // Getters
+    //================================================================================
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * @return the number of directories currently watched
+     */
+    public int getWatchCount() {
+        return subscription.getWatchCount();
+    }
+
+    public FileWatchService.Stats getStats() {
+        return subscription.getStats();
+    }
+
+    //================================================================================
+    // Internal Classes
+    //================================================================================
+    private record Stamp(long size, long modified) {
+        static Stamp of(BasicFileAttributes attrs) {
+            return new Stamp(attrs.size(), attrs.lastModifiedTime().toMillis());
+        }
+    }
+}
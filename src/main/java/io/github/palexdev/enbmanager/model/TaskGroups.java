@@ -0,0 +1,162 @@
+package io.github.palexdev.enbmanager.model;
+
+import io.github.palexdev.enbmanager.events.AppCloseEvent;
+import io.github.palexdev.enbmanager.settings.AppSettings;
+import io.github.palexdev.enbmanager.utils.UIUtils;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs the blocking I/O of the model and of the repository, like scans, in background.
+ * <p>
+ * Tasks are submitted to named {@link TaskGroup groups}, which run each task on its own virtual thread, named after
+ * the group. So, a long or stuck task never keeps the others waiting for a free thread, and the common ForkJoin pool is
+ * left to CPU work. How many tasks actually do I/O at the same time is limited by a set of permits shared by all the
+ * groups, see {@link AppSettings#getIOPermits()}.
+ * <p>
+ * Each group counts its tasks, see {@link #getStats()}.
+ */
+@Component
+public class TaskGroups {
+    //================================================================================
+    // Properties
+    //================================================================================
+    private final Semaphore permits;
+    private final Map<String, TaskGroup> groups = new ConcurrentHashMap<>();
+
+    //================================================================================
+    // Constructors
+    //================================================================================
+    public TaskGroups(AppSettings settings) {
+        this.permits = new Semaphore(settings.getIOPermits(), true);
+    }
+
+    //================================================================================
+    // Methods
+    //================================================================================
+
+    /**
+     * @return the group with the given name, created if needed
+     */
+    public TaskGroup group(String name) {
+        return groups.computeIfAbsent(name, TaskGroup::new);
+    }
+
+    //================================================================================
+    // Events
+    //================================================================================
+    @EventListener
+    public void onExit(AppCloseEvent event) {
+        groups.values().forEach(TaskGroup::shutdown);
+    }
+
+    //================================================================================
+    // Getters
+    //================================================================================
+    public List<Stats> getStats() {
+        return groups.values().stream().map(TaskGroup::getStats).toList();
+    }
+
+    /**
+     * @return the number of I/O permits currently free
+     */
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    //================================================================================
+    // Internal Classes
+    //================================================================================
+    public class TaskGroup implements Executor {
+        private final String name;
+        private final ExecutorService executor;
+        private final LongAdder submitted = new LongAdder();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final AtomicInteger running = new AtomicInteger();
+
+        TaskGroup(String name) {
+            this.name = name;
+            this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+        }
+
+        /**
+         * Runs the given task on a new virtual thread, as soon as an I/O permit is available.
+         * <p>
+         * For tasks nobody waits for: failures are reported to the user, except for the tasks rejected because the
+         * app is closing.
+         */
+        @Override
+        public void execute(Runnable task) {
+            supply(() -> {
+                task.run();
+                return null;
+            }).exceptionally(ex -> {
+                if (!(ex instanceof CancellationException))
+                    UIUtils.showError("A background task failed", ex);
+                return null;
+            });
+        }
+
+        /**
+         * Same as {@link #execute(Runnable)}, but failures are left to the caller through the returned future.
+         */
+        public CompletableFuture<Void> run(Runnable task) {
+            return supply(() -> {
+                task.run();
+                return null;
+            });
+        }
+
+        public <T> CompletableFuture<T> supply(Supplier<T> task) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            submitted.increment();
+            try {
+                executor.execute(() -> {
+                    permits.acquireUninterruptibly();
+                    running.incrementAndGet();
+                    try {
+                        future.complete(task.get());
+                        completed.increment();
+                    } catch (Throwable ex) {
+                        failed.increment();
+                        future.completeExceptionally(ex);
+                    } finally {
+                        running.decrementAndGet();
+                        permits.release();
+                    }
+                });
+            } catch (RejectedExecutionException ex) {
+                future.cancel(false);
+            }
+            return future;
+        }
+
+        protected void shutdown() {
+            executor.shutdownNow();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Stats getStats() {
+            return new Stats(name, submitted.sum(), running.get(), completed.sum(), failed.sum());
+        }
+    }
+
+    /**
+     * @param submitted the number of tasks submitted so far
+     * @param running   the number of tasks holding an I/O permit right now
+     * @param completed the number of tasks that ended normally
+     * @param failed    the number of tasks that ended with an exception
+     */
+    public record Stats(String name, long submitted, int running, long completed, long failed) {}
+}
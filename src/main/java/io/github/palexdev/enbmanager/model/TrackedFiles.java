@@ -0,0 +1,411 @@
+package io.github.palexdev.enbmanager.model;
+
+import io.github.palexdev.enbmanager.utils.UIUtils;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * The ENB/ReShade files and folders the app looks for in a game's directory, compiled from the patterns of a
+ * detection profile, see {@link DetectionProfiles}.
+ * <p>
+ * Patterns are paths relative to the game's directory, with '/' as separator, of three kinds:
+ * <ul>
+ *     <li>Literals, e.g. {@code d3d11.dll} or {@code Data/Shaders}: matched with a single hash probe</li>
+ *     <li>Directory prefixes, e.g. {@code reshade-shaders/}: like literals but they only match directories</li>
+ *     <li>Globs, e.g. {@code enb*.fx}: '*' and '?' match within a path segment, '[...]' are character classes and
+ *     '{a,b}' are alternatives. Wildcards are only allowed in the last segment, so globs are grouped by their
+ *     literal parent, and the globs of each parent are indexed by a {@link GlobSet}, so that a name is only checked
+ *     against the globs sharing its literal prefix or suffix</li>
+ * </ul>
+ * Names are matched case-insensitively, as games are made for Windows but may be installed on case-sensitive file
+ * systems, e.g. through Proton, where {@code D3D11.dll} and {@code d3d11.dll} are different files. Patterns are
+ * case-folded once, at compile time.
+ * <p>
+ * {@link #scan(Path)} finds the tracked files with one directory read for the root, plus one for each parent of
+ * nested patterns, e.g. {@code Data} for {@code Data/Shaders}, so detection is linear in the number of entries.
+ */
+public class TrackedFiles {
+    //================================================================================
+    // Properties
+    //================================================================================
+    private final Set<String> literals = new HashSet<>();
+    private final Set<String> directories = new HashSet<>();
+    private final Set<String> parents = new HashSet<>();
+    private final Map<String, GlobSet> globs = new HashMap<>();
+    private final int size;
+
+    //================================================================================
+    // Constructors
+    //================================================================================
+    public TrackedFiles(Collection<String> patterns) {
+        Map<String, List<String>> globs = new HashMap<>();
+        int size = 0;
+        for (String pattern : patterns) {
+            String p = fold(pattern.strip());
+            while (p.startsWith("/")) p = p.substring(1);
+            if (p.isEmpty()) continue;
+
+            boolean directory = p.endsWith("/");
+            if (directory) p = p.substring(0, p.length() - 1);
+            int slash = p.lastIndexOf('/');
+            String parent = (slash >= 0) ? p.substring(0, slash) : null;
+            if (isGlob(p)) {
+                try {
+                    if (parent != null && isGlob(parent))
+                        throw new IllegalArgumentException("Wildcards are only allowed in the last segment: " + pattern);
+                    String name = p.substring(slash + 1);
+                    GlobSet.parse(name);
+                    globs.computeIfAbsent((parent != null) ? parent : "", k -> new ArrayList<>()).add(name);
+                } catch (IllegalArgumentException ex) {
+                    // Skip invalid patterns rather than losing the whole profile
+                    UIUtils.showToast("Skipped invalid detection pattern: %s".formatted(ex.getMessage()));
+                    continue;
+                }
+            } else if (directory) {
+                directories.add(p);
+            } else {
+                literals.add(p);
+            }
+            addParents(parent);
+            size++;
+        }
+        globs.forEach((parent, names) -> this.globs.put(parent, new GlobSet(names)));
+        this.size = size;
+    }
+
+    //================================================================================
+    // Methods
+    //================================================================================
+
+    /**
+     * @return the given relative path with '/' as separator and in lower case
+     */
+    public static String fold(Path rel) {
+        return fold(rel.toString());
+    }
+
+    public static String fold(String path) {
+        return path.replace('\\', '/').toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return whether the given relative path matches one of the patterns
+     */
+    public boolean isTracked(Path rel) {
+        return matches(fold(rel));
+    }
+
+    /**
+     * @return the given relative path, or the first of its parents, which is tracked, with its original case.
+     * Null if neither the path nor its parents are tracked
+     */
+    public Path trackedAncestor(Path rel) {
+        for (Path p = rel; p != null; p = p.getParent()) {
+            if (matches(fold(p))) return p;
+        }
+        return null;
+    }
+
+    /**
+     * @return whether the given relative path is a parent of some patterns
+     */
+    public boolean isParent(Path rel) {
+        return parents.contains(fold(rel));
+    }
+
+    /**
+     * @return the absolute paths of the tracked files and folders found in the given directory
+     */
+    public Set<Path> scan(Path root) throws IOException {
+        Set<Path> found = new HashSet<>();
+        scan(root, null, found);
+        return found;
+    }
+
+    protected void scan(Path dir, String rel, Set<Path> found) throws IOException {
+        GlobSet globs = this.globs.get((rel != null) ? rel : "");
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path entry : stream) {
+                String name = fold(entry.getFileName().toString());
+                String folded = (rel != null) ? rel + "/" + name : name;
+                if (literals.contains(folded) || (globs != null && globs.matches(name))) {
+                    found.add(entry);
+                } else if (directories.contains(folded) || parents.contains(folded)) {
+                    // Only in these cases it's worth checking the type
+                    if (!Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) continue;
+                    if (directories.contains(folded)) {
+                        found.add(entry);
+                    } else {
+                        scan(entry, folded, found);
+                    }
+                }
+            }
+        }
+    }
+
+    protected boolean matches(String folded) {
+        if (literals.contains(folded) || directories.contains(folded)) return true;
+        int slash = folded.lastIndexOf('/');
+        GlobSet globs = this.globs.get((slash >= 0) ? folded.substring(0, slash) : "");
+        return globs != null && globs.matches(folded.substring(slash + 1));
+    }
+
+    private void addParents(String parent) {
+        while (parent != null) {
+            parents.add(parent);
+            int slash = parent.lastIndexOf('/');
+            parent = (slash >= 0) ? parent.substring(0, slash) : null;
+        }
+    }
+
+    private static boolean isGlob(String pattern) {
+        for (char c : pattern.toCharArray()) {
+            if (c == '*' || c == '?' || c == '[' || c == '{') return true;
+        }
+        return false;
+    }
+
+    //================================================================================
+    // Getters
+    //================================================================================
+
+    /**
+     * @return the number of patterns
+     */
+    public int size() {
+        return size;
+    }
+
+    //================================================================================
+    // Internal Classes
+    //================================================================================
+
+    /**
+     * Matches a name against many globs at once, without trying them one by one.
+     * <p>
+     * Globs are indexed by their literal prefix, the characters before the first wildcard, in a trie. Globs starting
+     * with a wildcard are indexed by their literal suffix instead, in a trie of reversed suffixes, e.g. {@code .fx} for
+     * {@code *.fx}. A name walks both tries once, and is then checked only against the globs found along the way,
+     * plus the few without any literal end, e.g. {@code *}. Each check is linear in the name's length for most globs,
+     * as '*' never backtracks more than once per character, see {@link Glob#matches(String)}.
+     * <p>
+     * Alternatives, '{a,b}', are expanded to multiple globs, then the tokens are: literal characters, '?', '*', and
+     * character classes, '[...]', with ranges and '!' for negation.
+     */
+    protected static class GlobSet {
+        private final Node prefixes = new Node();
+        private final Node suffixes = new Node();
+        private final List<Glob> others = new ArrayList<>();
+
+        public GlobSet(Collection<String> globs) {
+            for (String glob : globs) {
+                for (List<Token> tokens : parse(glob)) {
+                    add(new Glob(tokens.toArray(Token[]::new)));
+                }
+            }
+        }
+
+        /**
+         * @return whether the given name matches at least one glob
+         */
+        public boolean matches(String name) {
+            Node node = prefixes;
+            for (int i = 0; node != null; i++) {
+                for (Glob glob : node.globs) {
+                    if (glob.matches(name)) return true;
+                }
+                node = (i < name.length()) ? node.children.get(name.charAt(i)) : null;
+            }
+            node = suffixes;
+            for (int i = name.length() - 1; node != null; i--) {
+                for (Glob glob : node.globs) {
+                    if (glob.matches(name)) return true;
+                }
+                node = (i >= 0) ? node.children.get(name.charAt(i)) : null;
+            }
+            for (Glob glob : others) {
+                if (glob.matches(name)) return true;
+            }
+            return false;
+        }
+
+        protected void add(Glob glob) {
+            Token[] tokens = glob.tokens();
+            if (tokens.length > 0 && tokens[0].isLiteral()) {
+                Node node = prefixes;
+                for (int i = 0; i < tokens.length && tokens[i].isLiteral(); i++) {
+                    node = node.child((char) tokens[i].literal());
+                }
+                node.globs.add(glob);
+            } else if (tokens.length > 0 && tokens[tokens.length - 1].isLiteral()) {
+                Node node = suffixes;
+                for (int i = tokens.length - 1; i >= 0 && tokens[i].isLiteral(); i--) {
+                    node = node.child((char) tokens[i].literal());
+                }
+                node.globs.add(glob);
+            } else {
+                others.add(glob);
+            }
+        }
+
+        /**
+         * Parses the given glob, expanding its alternatives.
+         *
+         * @return the token sequence of each alternative
+         * @throws IllegalArgumentException if the glob is invalid
+         */
+        public static List<List<Token>> parse(String glob) {
+            List<List<Token>> result = new ArrayList<>();
+            result.add(new ArrayList<>());
+            List<List<Token>> group = null;
+            List<Token> alternative = null;
+            for (int i = 0; i < glob.length(); i++) {
+                char c = glob.charAt(i);
+                switch (c) {
+                    case '{' -> {
+                        if (group != null) throw new IllegalArgumentException("Nested groups are not supported: " + glob);
+                        group = new ArrayList<>();
+                        alternative = new ArrayList<>();
+                        continue;
+                    }
+                    case '}' -> {
+                        if (group == null) throw new IllegalArgumentException("Unbalanced group: " + glob);
+                        group.add(alternative);
+                        List<List<Token>> product = new ArrayList<>();
+                        for (List<Token> prefix : result) {
+                            for (List<Token> suffix : group) {
+                                List<Token> tokens = new ArrayList<>(prefix);
+                                tokens.addAll(suffix);
+                                product.add(tokens);
+                            }
+                        }
+                        result = product;
+                        group = null;
+                        continue;
+                    }
+                    case ',' -> {
+                        if (group != null) {
+                            group.add(alternative);
+                            alternative = new ArrayList<>();
+                            continue;
+                        }
+                    }
+                }
+
+                Token token;
+                switch (c) {
+                    case '*' -> token = Token.STAR;
+                    case '?' -> token = Token.ANY;
+                    case '[' -> {
+                        int end = glob.indexOf(']', i + 1);
+                        if (end < 0) throw new IllegalArgumentException("Unclosed character class: " + glob);
+                        token = Token.charClass(glob.substring(i + 1, end), glob);
+                        i = end;
+                    }
+                    default -> token = Token.literal(c);
+                }
+                if (group != null) {
+                    alternative.add(token);
+                } else {
+                    result.forEach(tokens -> tokens.add(token));
+                }
+            }
+            if (group != null) throw new IllegalArgumentException("Unclosed group: " + glob);
+            return result;
+        }
+
+        /**
+         * A node of the tries, the globs whose literal prefix, or reversed suffix, is the path to the node.
+         */
+        protected static class Node {
+            private final Map<Character, Node> children = new HashMap<>();
+            private final List<Glob> globs = new ArrayList<>();
+
+            Node child(char c) {
+                return children.computeIfAbsent(c, k -> new Node());
+            }
+        }
+
+        /**
+         * A glob without alternatives.
+         */
+        protected record Glob(Token[] tokens) {
+
+            /**
+             * Matches the given name with two cursors. When a token doesn't match, the last '*' takes one more
+             * character and the match resumes after it, earlier '*' never need to be reconsidered.
+             */
+            boolean matches(String name) {
+                int i = 0, t = 0;
+                int star = -1, mark = 0;
+                while (i < name.length()) {
+                    if (t < tokens.length && tokens[t].star()) {
+                        star = t++;
+                        mark = i;
+                    } else if (t < tokens.length && tokens[t].accepts().test(name.charAt(i))) {
+                        i++;
+                        t++;
+                    } else if (star >= 0) {
+                        t = star + 1;
+                        i = ++mark;
+                    } else {
+                        return false;
+                    }
+                }
+                while (t < tokens.length && tokens[t].star()) t++;
+                return t == tokens.length;
+            }
+        }
+
+        /**
+         * A single character of a glob, or '*' which matches any number of characters.
+         */
+        protected record Token(boolean star, int literal, CharPredicate accepts) {
+            static final int NO_LITERAL = -1;
+            static final Token STAR = new Token(true, NO_LITERAL, c -> true);
+            static final Token ANY = new Token(false, NO_LITERAL, c -> true);
+
+            static Token literal(char literal) {
+                return new Token(false, literal, c -> c == literal);
+            }
+
+            boolean isLiteral() {
+                return literal != NO_LITERAL;
+            }
+
+            static Token charClass(String cls, String glob) {
+                boolean negate = cls.startsWith("!") || cls.startsWith("^");
+                if (negate) cls = cls.substring(1);
+                if (cls.isEmpty()) throw new IllegalArgumentException("Empty character class: " + glob);
+                StringBuilder ranges = new StringBuilder();
+                for (int i = 0; i < cls.length(); i++) {
+                    char lo = cls.charAt(i);
+                    char hi = lo;
+                    if (i + 2 < cls.length() && cls.charAt(i + 1) == '-') {
+                        hi = cls.charAt(i + 2);
+                        i += 2;
+                    }
+                    if (hi < lo) throw new IllegalArgumentException("Invalid range in character class: " + glob);
+                    ranges.append(lo).append(hi);
+                }
+                String bounds = ranges.toString();
+                return new Token(false, NO_LITERAL, c -> {
+                    for (int i = 0; i < bounds.length(); i += 2) {
+                        if (c >= bounds.charAt(i) && c <= bounds.charAt(i + 1)) return !negate;
+                    }
+                    return negate;
+                });
+            }
+        }
+
+        @FunctionalInterface
+        protected interface CharPredicate {
+            boolean test(char c);
+        }
+    }
+}
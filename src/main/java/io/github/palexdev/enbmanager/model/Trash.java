@@ -0,0 +1,222 @@
+package io.github.palexdev.enbmanager.model;
+
+import io.github.palexdev.enbmanager.events.AppCloseEvent;
+import io.github.palexdev.enbmanager.settings.AppSettings;
+import io.github.palexdev.enbmanager.utils.FileUtils;
+import io.github.palexdev.enbmanager.utils.UIUtils;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+/**
+ * Makes deletions instant and undoable.
+ * <p>
+ * Instead of deleting files one by one on the caller's thread, {@link #trash(Path, Collection, Runnable)} renames
+ * them into a trash area, {@link #DIR_NAME}, inside the given root. As long as the root is on the same file system of
+ * the trashed files, which is the case for the game's directory and the repository, this takes constant time no
+ * matter how big the files are.
+ * <p>
+ * Trashed items can be restored with another rename during the undo window, see {@link AppSettings#getUndoWindow()}.
+ * After that, they are deleted for real by a low-priority background worker. Items left over by a previous session
+ * are reclaimed by {@link #purge(Path, Runnable)}. Once empty, the trash area is deleted too.
+ */
+@Component
+public class Trash {
+    //================================================================================
+    // Static Properties
+    //================================================================================
+    public static final String DIR_NAME = ".enbmanager-trash";
+
+    //================================================================================
+    // Properties
+    //================================================================================
+    private final Duration undoWindow;
+    private final ScheduledExecutorService reclaimer;
+    private final Map<Item, Pending> pending = new ConcurrentHashMap<>();
+
+    //================================================================================
+    // Constructors
+    //================================================================================
+    public Trash(AppSettings settings) {
+        this.undoWindow = settings.getUndoWindow();
+        this.reclaimer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "trash-reclaimer");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+    }
+
+    //================================================================================
+    // Methods
+    //================================================================================
+
+    /**
+     * Moves the given paths in the trash area of the given root. If any of the moves fails, the paths already
+     * trashed are moved back.
+     *
+     * @param onReclaimed action to run once the item has been deleted for real, can be null
+     * @return the trashed item, which can be {@link #restore(Item) restored} until the undo window expires
+     */
+    public Item trash(Path root, Collection<? extends Path> paths, Runnable onReclaimed) throws IOException {
+        Path dir = root.resolve(DIR_NAME).resolve(UUID.randomUUID().toString());
+        // Must not race with the deletion of the empty trash area
+        synchronized (this) {
+            Files.createDirectories(dir);
+        }
+        Map<Path, Path> entries = new LinkedHashMap<>();
+        int i = 0;
+        try {
+            for (Path path : paths) {
+                if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) continue;
+                // Each entry gets its own directory as different paths may have the same name
+                Path trashed = Files.createDirectory(dir.resolve(String.valueOf(i++))).resolve(path.getFileName());
+                Files.move(path, trashed);
+                entries.put(path, trashed);
+            }
+        } catch (IOException ex) {
+            // If moving back fails too, whatever is left in the trash is kept until the next purge
+            Item partial = new Item(dir, entries);
+            try {
+                moveBack(partial);
+                reclaimer.execute(() -> reclaim(partial, null));
+            } catch (IOException mex) {
+                ex.addSuppressed(mex);
+            }
+            throw ex;
+        }
+
+        Item item = new Item(dir, Collections.unmodifiableMap(entries));
+        schedule(item, onReclaimed);
+        return item;
+    }
+
+    /**
+     * Moves the given item's paths back to their original location.
+     *
+     * @return false if the undo window expired and the item is already being deleted
+     * @throws FileAlreadyExistsException if one of the original locations has been taken in the meantime
+     */
+    public boolean restore(Item item) throws IOException {
+        Pending p = pending.remove(item);
+        if (p == null || !p.future().cancel(false)) return false;
+        try {
+            moveBack(item);
+        } catch (IOException ex) {
+            // Give the user another chance rather than deleting what could not be restored
+            schedule(item, p.onReclaimed());
+            throw ex;
+        }
+        reclaimer.execute(() -> reclaim(item, null));
+        return true;
+    }
+
+    /**
+     * Schedules the deletion of every item in the trash area of the given root which is not pending anymore,
+     * in other words the ones left over by a previous session.
+     *
+     * @param onPurged action to run if any item has been deleted, can be null
+     */
+    public void purge(Path root, Runnable onPurged) {
+        Path trashRoot = root.resolve(DIR_NAME);
+        if (!Files.isDirectory(trashRoot)) return;
+        reclaimer.execute(() -> {
+            Set<Path> live = new HashSet<>();
+            pending.keySet().forEach(i -> live.add(i.dir()));
+            int purged = 0;
+            try (Stream<Path> stream = Files.list(trashRoot)) {
+                for (Path dir : stream.filter(d -> !live.contains(d)).toList()) {
+                    FileUtils.delete(dir);
+                    purged++;
+                }
+            } catch (IOException ex) {
+                UIUtils.showError("Failed to empty the trash", ex);
+            }
+            deleteIfEmpty(trashRoot);
+            if (purged > 0 && onPurged != null) onPurged.run();
+        });
+    }
+
+    protected void schedule(Item item, Runnable onReclaimed) {
+        ScheduledFuture<?> future = reclaimer.schedule(
+            () -> reclaim(item, onReclaimed), undoWindow.toMillis(), TimeUnit.MILLISECONDS
+        );
+        pending.put(item, new Pending(future, onReclaimed));
+    }
+
+    protected void moveBack(Item item) throws IOException {
+        for (Map.Entry<Path, Path> e : item.entries().entrySet()) {
+            Path original = e.getKey();
+            Path trashed = e.getValue();
+            if (!Files.exists(trashed, LinkOption.NOFOLLOW_LINKS)) continue;
+            if (Files.exists(original, LinkOption.NOFOLLOW_LINKS)) throw new FileAlreadyExistsException(original.toString());
+            Files.move(trashed, original);
+        }
+    }
+
+    protected void reclaim(Item item, Runnable onReclaimed) {
+        pending.remove(item);
+        try {
+            if (Files.exists(item.dir())) FileUtils.delete(item.dir());
+            deleteIfEmpty(item.dir().getParent());
+            if (onReclaimed != null) onReclaimed.run();
+        } catch (IOException ex) {
+            // Whatever is left is deleted by the next purge
+            UIUtils.showError("Failed to empty the trash", ex);
+        }
+    }
+
+    /**
+     * Deletes the given trash area if there's nothing left in it, so that no trace is left in the game's directory.
+     */
+    protected synchronized void deleteIfEmpty(Path trashRoot) {
+        try {
+            Files.deleteIfExists(trashRoot);
+        } catch (IOException ignored) {
+            // Not empty, new items have been trashed in the meantime
+        }
+    }
+
+    //================================================================================
+    // Events
+    //================================================================================
+    @EventListener
+    public void onExit(AppCloseEvent event) {
+        // Pending items are not deleted now to not delay the exit, they are purged at the next start
+        reclaimer.shutdownNow();
+    }
+
+    //================================================================================
+    // Getters
+    //================================================================================
+    public Duration getUndoWindow() {
+        return undoWindow;
+    }
+
+    //================================================================================
+    // Internal Classes
+    //================================================================================
+
+    /**
+     * A batch of trashed paths.
+     *
+     * @param dir     the item's directory in the trash area
+     * @param entries maps each original path to its location in the trash
+     */
+    public record Item(Path dir, Map<Path, Path> entries) {
+        public boolean isEmpty() {
+            return entries.isEmpty();
+        }
+    }
+
+    private record Pending(ScheduledFuture<?> future, Runnable onReclaimed) {}
+}
@@ -0,0 +1,159 @@
+package io.github.palexdev.enbmanager.model;
+
+import io.github.palexdev.enbmanager.events.AppCloseEvent;
+import io.github.palexdev.enbmanager.model.repo.LoadJournal;
+import io.github.palexdev.enbmanager.settings.AppSettings;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps track of the file operations the app itself is performing, so that the watchers can tell them apart from
+ * external changes.
+ * <p>
+ * Each operation is registered with {@link #begin(Path, Collection)}, which gives it an epoch and the set of paths
+ * it may write. Watcher events for those paths, or for anything under them, are {@link #isSelfWrite(Path) ignored}
+ * until the operation ends, plus a grace period for the events still in flight. Then the operation's callback runs,
+ * typically to reconcile the state with a single scan, instead of reacting to every single write.
+ */
+@Component
+public class WriteTracker {
+    //================================================================================
+    // Properties
+    //================================================================================
+    private final Map<Long, Operation> active = new ConcurrentHashMap<>();
+    private final AtomicLong epochs = new AtomicLong();
+    private final AtomicLong suppressed = new AtomicLong();
+    private final Duration grace;
+    private final ScheduledExecutorService scheduler;
+
+    //================================================================================
+    // Constructors
+    //================================================================================
+    public WriteTracker(AppSettings settings) {
+        this.grace = settings.getWatchQuietWindow().multipliedBy(2);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "write-tracker");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    //================================================================================
+    // Methods
+    //================================================================================
+
+    /**
+     * Registers a new operation.
+     *
+     * @param root  the directory in which the operation works
+     * @param paths the paths the operation may create, modify or delete. For directories, everything in them is
+     *              considered part of the operation too
+     */
+    public Operation begin(Path root, Collection<? extends Path> paths) {
+        Set<Path> written = paths.stream()
+            .filter(p -> p.startsWith(root) && !p.equals(root))
+            .collect(Collectors.toUnmodifiableSet());
+        return register(new Operation(epochs.incrementAndGet(), root, written));
+    }
+
+    protected Operation register(Operation op) {
+        active.put(op.epoch(), op);
+        return op;
+    }
+
+    /**
+     * @return whether the given path is being written by one of the active operations, in which case the event
+     * should be ignored
+     */
+    public boolean isSelfWrite(Path path) {
+        if (path == null || active.isEmpty()) return false;
+        for (Operation op : active.values()) {
+            if (op.covers(path)) {
+                suppressed.incrementAndGet();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @EventListener
+    public void onExit(AppCloseEvent event) {
+        scheduler.shutdownNow();
+    }
+
+    //================================================================================
+    // Getters
+    //================================================================================
+
+    /**
+     * @return the number of events ignored so far
+     */
+    public long getSuppressed() {
+        return suppressed.get();
+    }
+
+    public boolean isActive() {
+        return !active.isEmpty();
+    }
+
+    //================================================================================
+    // Internal Classes
+    //================================================================================
+    public class Operation {
+        private final long epoch;
+        private final Path root;
+        private final Set<Path> paths;
+
+        Operation(long epoch, Path root, Set<Path> paths) {
+            this.epoch = epoch;
+            this.root = root;
+            this.paths = paths;
+        }
+
+        /**
+         * @return whether the given path, or one of its parents, is written by this operation
+         */
+        protected boolean covers(Path path) {
+            if (!path.startsWith(root) || path.equals(root)) return false;
+            // Staged files of journaled loads live beside their targets
+            String name = path.getFileName().toString();
+            if (name.endsWith(LoadJournal.STAGE_SUFFIX))
+                path = path.resolveSibling(name.substring(0, name.length() - LoadJournal.STAGE_SUFFIX.length()));
+            for (Path p = path; p != null && !p.equals(root); p = p.getParent()) {
+                if (paths.contains(p)) return true;
+            }
+            return false;
+        }
+
+        /**
+         * Ends the operation. Its writes keep being ignored for a short grace period, then the given callback runs.
+         */
+        public void end(Runnable onSettled) {
+            try {
+                scheduler.schedule(() -> {
+                    active.remove(epoch);
+                    if (onSettled != null) onSettled.run();
+                }, grace.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException ex) {
+                active.remove(epoch);
+            }
+        }
+
+        public long epoch() {
+            return epoch;
+        }
+
+        public Path root() {
+            return root;
+        }
+    }
+}
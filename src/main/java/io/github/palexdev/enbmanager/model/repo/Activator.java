@@ -0,0 +1,197 @@
+package io.github.palexdev.enbmanager.model.repo;
+
+import io.github.palexdev.enbmanager.utils.FileUtils;
+
+import java.io.IOException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Places the files of a configuration in the game's directory during a load, using the cheapest
+ * {@link Strategy} that works.
+ * <p>
+ * The initial strategy is chosen once per load by comparing the {@link java.nio.file.FileStore}s of the source and
+ * target roots: hard links are only possible on the same store, symbolic links work everywhere, and the copy is the
+ * last resort. If a strategy fails (not supported by the file system, missing privileges, cross-device link...),
+ * the activator downgrades to the next one allowed by the {@link Mode} and remembers it for the rest of the load.
+ * <p>
+ * Links are opt-in, the default {@link Mode} is {@link Mode#COPY}. A hard link shares the data with the repository, so
+ * an edit in place would change the saved config, and for blobs every config sharing them. Files that the game, ENB or
+ * ReShade are known to edit in place, see {@link #MUTABLE_EXTENSIONS}, are always copied, but any other file edited
+ * in place by a tool would still alter the repository.
+ * <p>
+ * Note that the JDK does not expose copy-on-write clones (reflinks), so those are not part of the ladder.
+ */
+public class Activator {
+    //================================================================================
+    // Static Properties
+    //================================================================================
+    public static final Set<String> MUTABLE_EXTENSIONS = Set.of(
+        "ini", "txt", "log", "cfg", "json",
+        // Shaders and presets are edited in place by the ENB/ReShade editors
+        "fx", "fxh", "h", "fxpreset"
+    );
+
+    //================================================================================
+    // Properties
+    //================================================================================
+    private final Mode mode;
+    private volatile Strategy strategy;
+    private FileUtils.TransferOptions transferOptions;
+    private FileUtils.ChunkListener chunkListener;
+    private final AtomicLong linked = new AtomicLong();
+    private final AtomicLong copied = new AtomicLong();
+
+    //================================================================================
+    // Constructors
+    //================================================================================
+    protected Activator(Mode mode, Strategy strategy) {
+        this.mode = mode;
+        this.strategy = strategy;
+    }
+
+    /**
+     * Builds an activator for files going from {@code sourceRoot} to {@code targetRoot}.
+     *
+     * @param mode the most aggressive strategy allowed
+     */
+    public static Activator forLoad(Path sourceRoot, Path targetRoot, Mode mode) {
+        Strategy strategy = switch (mode) {
+            case COPY -> Strategy.COPY;
+            case HARDLINK -> sameStore(sourceRoot, targetRoot) ? Strategy.HARDLINK : Strategy.COPY;
+            case SYMLINK -> sameStore(sourceRoot, targetRoot) ? Strategy.HARDLINK : Strategy.SYMLINK;
+        };
+        return new Activator(mode, strategy);
+    }
+
+    /**
+     * Same as {@link #forLoad(Path, Path, Mode)}, but files are copied with
+     * {@link FileUtils#transfer(Path, Path, FileUtils.TransferOptions, FileUtils.ChunkListener)} if the given options
+     * are not null.
+     */
+    public static Activator forLoad(Path sourceRoot, Path targetRoot, Mode mode,
+                                    FileUtils.TransferOptions options, FileUtils.ChunkListener listener) {
+        Activator activator = forLoad(sourceRoot, targetRoot, mode);
+        activator.transferOptions = options;
+        activator.chunkListener = listener;
+        return activator;
+    }
+
+    //================================================================================
+    // Methods
+    //================================================================================
+
+    /**
+     * Places the given source at the given target, replacing it if it already exists.
+     *
+     * @return the strategy that was used
+     */
+    public Strategy activate(Path source, Path target) throws IOException {
+        if (isMutable(target)) {
+            doCopy(source, target);
+            return Strategy.COPY;
+        }
+
+        Strategy s = strategy;
+        while (true) {
+            try {
+                switch (s) {
+                    case HARDLINK -> {
+                        Files.deleteIfExists(target);
+                        Files.createLink(target, source);
+                        linked.incrementAndGet();
+                    }
+                    case SYMLINK -> {
+                        Files.deleteIfExists(target);
+                        Files.createSymbolicLink(target, source.toAbsolutePath());
+                        linked.incrementAndGet();
+                    }
+                    case COPY -> doCopy(source, target);
+                }
+                return s;
+            } catch (UnsupportedOperationException | SecurityException | FileSystemException ex) {
+                if (s == Strategy.COPY) throw ex;
+                s = downgrade(s);
+            }
+        }
+    }
+
+    protected void doCopy(Path source, Path target) throws IOException {
+        FileUtils.copyFile(source, target, transferOptions, chunkListener);
+        copied.incrementAndGet();
+    }
+
+    protected synchronized Strategy downgrade(Strategy failed) {
+        if (strategy == failed) {
+            strategy = switch (failed) {
+                case HARDLINK -> (mode == Mode.SYMLINK) ? Strategy.SYMLINK : Strategy.COPY;
+                case SYMLINK, COPY -> Strategy.COPY;
+            };
+        }
+        return strategy;
+    }
+
+    public static boolean isMutable(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot >= 0 && MUTABLE_EXTENSIONS.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    private static boolean sameStore(Path a, Path b) {
+        try {
+            return Objects.equals(Files.getFileStore(a), Files.getFileStore(b));
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    //================================================================================
+    // Getters
+    //================================================================================
+    public Mode getMode() {
+        return mode;
+    }
+
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    public long getLinked() {
+        return linked.get();
+    }
+
+    public long getCopied() {
+        return copied.get();
+    }
+
+    //================================================================================
+    // Internal Classes
+    //================================================================================
+    public enum Strategy {
+        HARDLINK, SYMLINK, COPY
+    }
+
+    /**
+     * Limits the strategies an {@link Activator} can use.
+     * <p>
+     * {@link #COPY} is the default, as it's the only mode in which editing the loaded files can never alter the
+     * repository. {@link #HARDLINK} saves space and time but must be enabled explicitly. {@link #SYMLINK} also breaks
+     * as soon as the config it points to is deleted from the repository, while a hard link keeps the data alive.
+     */
+    public enum Mode {
+        COPY, HARDLINK, SYMLINK;
+
+        public static Mode parse(String s) {
+            try {
+                return valueOf(s.toUpperCase(Locale.ROOT));
+            } catch (Exception ex) {
+                return COPY;
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package io.github.palexdev.enbmanager.model.repo;
+
+import io.github.palexdev.enbmanager.model.Trash;
+import io.github.palexdev.enbmanager.utils.FileUtils;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Content-addressed storage shared by all the games' configurations.
+ * <p>
+ * Every file is stored only once, keyed by the SHA-256 of its content, under {@code <repo>/.blobs/<2 chars>/<hash>}.
+ * Configurations then reference blobs through a {@link Manifest}, so saving a near-duplicate preset only writes the
+ * files that are actually new.
+ */
+public class BlobStore {
+    //================================================================================
+    // Static Properties
+    //================================================================================
+    public static final String DIR_NAME = ".blobs";
+    private static final String TMP_SUFFIX = ".tmp";
+
+    //================================================================================
+    // Properties
+    //================================================================================
+    private final Path repoPath;
+    private final Path root;
+
+    //================================================================================
+    // Constructors
+    //================================================================================
+    public BlobStore(Path repoPath) {
+        this.repoPath = repoPath;
+        this.root = repoPath.resolve(DIR_NAME);
+    }
+
+    //================================================================================
+    // Methods
+    //================================================================================
+
+    /**
+     * Adds the given file to the store, unless a blob with the same content already exists.
+     * <p>
+     * The data is first written to a temporary file that is then atomically moved in place, so that a blob is either
+     * complete or absent. This also makes concurrent stores of the same content safe.
+     *
+     * @return the hash of the file, which identifies its blob
+     */
+    public String store(Path file) throws IOException {
+        String hash = FileUtils.hash(file);
+        Path blob = resolve(hash);
+        if (Files.exists(blob)) return hash;
+
+        Files.createDirectories(blob.getParent());
+        Path tmp = Files.createTempFile(root, hash, TMP_SUFFIX);
+        try {
+            Files.copy(file, tmp, REPLACE_EXISTING);
+            Files.move(tmp, blob, ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException ignored) {
+            // Another worker stored the same content in the meantime
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        return hash;
+    }
+
+    public Path resolve(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    public boolean contains(String hash) {
+        return Files.exists(resolve(hash));
+    }
+
+    /**
+     * Deletes all the blobs that are not referenced by any manifest in the repository, for any game.
+     * Leftover temporary files from interrupted stores are deleted too.
+     *
+     * @return the number of deleted blobs
+     */
+    public int collectGarbage() throws IOException {
+        if (!Files.isDirectory(root)) return 0;
+        Set<String> live = liveHashes();
+        int deleted = 0;
+        try (Stream<Path> stream = Files.walk(root, 2)) {
+            List<Path> blobs = stream.filter(Files::isRegularFile).toList();
+            for (Path blob : blobs) {
+                String name = blob.getFileName().toString();
+                if (name.endsWith(TMP_SUFFIX) || !live.contains(name)) {
+                    Files.deleteIfExists(blob);
+                    deleted++;
+                }
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Collects the hashes referenced by the manifests of every game, including the manifests in the {@link Trash},
+     * as they may still be restored.
+     */
+    protected Set<String> liveHashes() throws IOException {
+        Set<String> hashes = new HashSet<>();
+        Path trash = repoPath.resolve(Trash.DIR_NAME);
+        try (Stream<Path> games = Files.list(repoPath)) {
+            List<Path> dirs = games.filter(Files::isDirectory).filter(p -> !p.equals(root)).toList();
+            for (Path dir : dirs) {
+                // Trashed items are laid out as <trash>/<item>/<n>/<file>
+                int depth = dir.equals(trash) ? 3 : 1;
+                try (Stream<Path> stream = Files.walk(dir, depth)) {
+                    List<Path> manifests = stream
+                        .filter(p -> p.getFileName().toString().endsWith(Manifest.EXTENSION))
+                        .filter(Files::isRegularFile)
+                        .toList();
+                    for (Path manifest : manifests) {
+                        hashes.addAll(Manifest.read(manifest).hashes());
+                    }
+                }
+            }
+        }
+        return hashes;
+    }
+
+    //================================================================================
+    // Getters
+    //================================================================================
+    public Path getRoot() {
+        return root;
+    }
+}
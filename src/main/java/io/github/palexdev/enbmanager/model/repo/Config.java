@@ -1,34 +1,182 @@
 package io.github.palexdev.enbmanager.model.repo;
 
-import io.github.palexdev.enbmanager.utils.PathsComparator;
+import io.github.palexdev.enbmanager.model.FileEntry;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
-public record Config(String name, Path path, Set<Path> files) {
+/**
+ * Represents a configuration saved in the repository.
+ * <p>
+ * The {@code path} is the logical location of the configuration, {@code <repo>/<game>/<name>}, and it's what
+ * identifies it regardless of how it is stored. The {@code files} are the top-level files and directories of the
+ * configuration, resolved against the logical path.
+ * <p>
+ * Depending on the {@link Format}, the data lives in different places:
+ * <ul>
+ *     <li>{@link Format#DIRECTORY}: legacy format, the files are physically copied in the config's directory</li>
+ *     <li>{@link Format#BLOBS}: a {@link Manifest} beside the logical path maps each file to a blob of the
+ *     {@link BlobStore}</li>
+ *     <li>{@link Format#ARCHIVE}: the files are compressed in a zip beside the logical path, see
+ *     {@link ConfigArchive}</li>
+ * </ul>
+ * The files are enumerated only when first needed, as listing the configs only requires their names, then cached.
+ * For {@link Format#DIRECTORY} configs this means listing the directory, so it's better done in background, see
+ * {@link #filesAsync(Executor)}.
+ */
+public final class Config {
+    //================================================================================
+    // Properties
+    //================================================================================
+    private final String name;
+    private final Path path;
+    private final Format format;
+    private final Manifest manifest;
+    private volatile SortedSet<Path> files;
 
     //================================================================================
     // Constructors
     //================================================================================
+    public Config(String name, Path path, Format format, Manifest manifest) {
+        this.name = name;
+        this.path = path;
+        this.format = format;
+        this.manifest = manifest;
+    }
+
     public Config(Path path) {
-        this(path.getFileName().toString(), path, new TreeSet<>(PathsComparator.instance()));
+        this(path.getFileName().toString(), path, Format.DIRECTORY, null);
     }
 
     public static Config from(Path path) {
         return new Config(path);
     }
 
+    public static Config fromManifest(Path path, Manifest manifest) {
+        return fromManifest(path, manifest, Format.BLOBS);
+    }
+
+    public static Config fromArchive(Path path, Manifest manifest) {
+        return fromManifest(path, manifest, Format.ARCHIVE);
+    }
+
+    private static Config fromManifest(Path path, Manifest manifest, Format format) {
+        return new Config(path.getFileName().toString(), path, format, manifest);
+    }
+
     //================================================================================
     // Methods
     //================================================================================
-    public Config addFiles(Path... files) {
-        Collections.addAll(this.files, files);
-        return this;
+
+    /**
+     * @return the config's top-level files, sorted. They are enumerated by the first call, which may block reading
+     * the config's directory, see {@link #filesAsync(Executor)}
+     * @throws UncheckedIOException if the config's directory could not be listed
+     */
+    public SortedSet<Path> files() {
+        SortedSet<Path> files = this.files;
+        if (files == null) {
+            synchronized (this) {
+                files = this.files;
+                if (files == null) {
+                    try {
+                        files = Collections.unmodifiableSortedSet(enumerate());
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                    this.files = files;
+                }
+            }
+        }
+        return files;
+    }
+
+    /**
+     * @return a future completed with the config's files, immediately if they were already enumerated, otherwise
+     * they are enumerated on the given executor
+     */
+    public CompletableFuture<SortedSet<Path>> filesAsync(Executor executor) {
+        SortedSet<Path> files = this.files;
+        if (files != null) return CompletableFuture.completedFuture(files);
+        return CompletableFuture.supplyAsync(this::files, executor);
+    }
+
+    /**
+     * @return whether the files were already enumerated
+     */
+    public boolean isEnumerated() {
+        return files != null;
     }
 
-    public Config addFiles(Collection<? extends Path> files) {
-        this.files.addAll(files);
-        return this;
+    protected SortedSet<Path> enumerate() throws IOException {
+        SortedSet<Path> files = new TreeSet<>();
+        if (manifest != null) {
+            manifest.roots().forEach(r -> files.add(path.resolve(r)));
+            return files;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
+            stream.forEach(files::add);
+        }
+        return files;
+    }
+
+    /**
+     * Describes the config's top-level files and directories. For {@link Format#DIRECTORY} configs the attributes
+     * are read from the disk, otherwise they come from the manifest, and directories get the total size, the number of
+     * files and the most recent modification time of their content.
+     */
+    public List<FileEntry> entries() throws IOException {
+        List<FileEntry> entries = new ArrayList<>();
+        if (manifest == null) {
+            SortedSet<Path> files;
+            try {
+                files = files();
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+            for (Path file : files) {
+                FileEntry entry = FileEntry.read(file);
+                if (entry != null) entries.add(entry);
+            }
+            return entries;
+        }
+
+        for (String root : manifest.roots()) {
+            Path file = path.resolve(root);
+            Manifest.Entry e = manifest.get(root);
+            if (e != null) {
+                entries.add(FileEntry.of(file, false, e.size(), e.modified()));
+                continue;
+            }
+            String prefix = root + "/";
+            long size = 0, count = 0, modified = 0;
+            for (Manifest.Entry m : manifest.getEntries()) {
+                if (!m.path().startsWith(prefix)) continue;
+                size += m.size();
+                count++;
+                modified = Math.max(modified, m.modified());
+            }
+            entries.add(FileEntry.of(file, true, size, count, modified));
+        }
+        return entries;
+    }
+
+    /**
+     * @return the physical location of the configuration, the directory for {@link Format#DIRECTORY} configs,
+     * the manifest file for {@link Format#BLOBS} configs, the zip file for {@link Format#ARCHIVE} configs
+     */
+    public Path location() {
+        return switch (format) {
+            case DIRECTORY -> path;
+            case BLOBS -> path.resolveSibling(name + Manifest.EXTENSION);
+            case ARCHIVE -> path.resolveSibling(name + ConfigArchive.EXTENSION);
+        };
     }
 
     //================================================================================
@@ -46,4 +194,35 @@ public record Config(String name, Path path, Set<Path> files) {
     public int hashCode() {
         return Objects.hash(path);
     }
+
+    @Override
+    public String toString() {
+        return "Config[name=%s, path=%s, format=%s]".formatted(name, path, format);
+    }
+
+    //================================================================================
+    // Getters
+    //================================================================================
+    public String name() {
+        return name;
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public Format format() {
+        return format;
+    }
+
+    public Manifest manifest() {
+        return manifest;
+    }
+
+    //================================================================================
+    // Internal Classes
+    //================================================================================
+    public enum Format {
+        DIRECTORY, BLOBS, ARCHIVE
+    }
 }
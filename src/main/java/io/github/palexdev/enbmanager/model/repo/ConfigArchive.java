@@ -0,0 +1,209 @@
+package io.github.palexdev.enbmanager.model.repo;
+
+import io.github.palexdev.enbmanager.utils.CopyEngine.CopyStats;
+import io.github.palexdev.enbmanager.utils.CopyProgress;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.*;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Reads and writes {@link Config.Format#ARCHIVE} configs, one zip file per config.
+ * <p>
+ * The content of an archive is described by a {@link Manifest} built from the zip's central directory, so listing
+ * it never inflates anything. For archives, the manifest's hashes are the CRC-32 of the entries as stored by the zip
+ * format, in hexadecimal.
+ * <p>
+ * Loads are streamed: entries are inflated straight to their destination in the game's directory, in a single pass
+ * over the archive and without temporary copies.
+ */
+public class ConfigArchive {
+    //================================================================================
+    // Static Properties
+    //================================================================================
+    public static final String EXTENSION = ".zip";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    //================================================================================
+    // Constructors
+    //================================================================================
+    private ConfigArchive() {
+    }
+
+    //================================================================================
+    // Static Methods
+    //================================================================================
+
+    /**
+     * Lists the entries of the given archive. Only the central directory is read.
+     */
+    public static Manifest read(Path archive) throws IOException {
+        Manifest manifest = new Manifest();
+        try (ZipFile zip = new ZipFile(archive.toFile())) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry e = entries.nextElement();
+                if (e.isDirectory()) continue;
+                try {
+                    manifest.put(new Manifest.Entry(e.getName(), crcToString(e.getCrc()), e.getSize(), e.getLastModifiedTime().toMillis()));
+                } catch (IllegalArgumentException ex) {
+                    throw new IOException("Invalid archive entry: " + e.getName(), ex);
+                }
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * Compresses the given files, and the content of the given directories, into a new archive. Entries are named
+     * after their path relative to the given root.
+     * <p>
+     * The archive is first written to a temporary file that is then moved in place, so that an error or a
+     * cancellation never leaves a truncated archive behind.
+     *
+     * @return the manifest of the written archive
+     * @throws CancellationException if the given progress is cancelled
+     */
+    public static Manifest write(Path archive, Path root, Collection<? extends Path> files, CopyProgress progress) throws IOException {
+        Map<Path, BasicFileAttributes> sources = new LinkedHashMap<>();
+        for (Path file : files) {
+            Files.walkFileTree(file, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path f, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile()) sources.put(f, attrs);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+        progress.begin(sources.size(), sources.values().stream().mapToLong(BasicFileAttributes::size).sum());
+
+        Manifest manifest = new Manifest();
+        Path tmp = archive.resolveSibling(archive.getFileName() + ".tmp");
+        try {
+            try (ZipOutputStream zos = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), BUFFER_SIZE))) {
+                zos.setLevel(Deflater.DEFAULT_COMPRESSION);
+                for (Map.Entry<Path, BasicFileAttributes> s : sources.entrySet()) {
+                    if (progress.isCancelled())
+                        throw new CancellationException("Operation %s was cancelled".formatted(progress.getOperation()));
+                    Path source = s.getKey();
+                    BasicFileAttributes attrs = s.getValue();
+                    progress.started(source);
+
+                    // Zip timestamps have a precision of one second
+                    FileTime modified = FileTime.from(attrs.lastModifiedTime().to(TimeUnit.SECONDS), TimeUnit.SECONDS);
+                    ZipEntry e = new ZipEntry(Manifest.toEntryPath(root.relativize(source)));
+                    e.setLastModifiedTime(modified);
+                    zos.putNextEntry(e);
+                    Files.copy(source, zos);
+                    zos.closeEntry();
+
+                    manifest.put(new Manifest.Entry(e.getName(), crcToString(e.getCrc()), e.getSize(), modified.toMillis()));
+                    progress.completed(attrs.size());
+                }
+            }
+            Files.move(tmp, archive, REPLACE_EXISTING, ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        return manifest;
+    }
+
+    /**
+     * Extracts the given archive into the given root in a single pass.
+     * <p>
+     * For each entry the given {@link Destination} decides where the data should be written, if at all. Entries that
+     * would end up outside the root are rejected.
+     *
+     * @param manifest the archive's manifest, used for the totals and passed to the destination
+     * @return the number of files and bytes extracted or skipped
+     * @throws CancellationException if the given progress is cancelled before all entries are extracted
+     */
+    public static CopyStats extract(Path archive, Manifest manifest, Path root, Destination destination, CopyProgress progress) throws IOException {
+        progress.begin(manifest.size(), manifest.totalSize());
+        long files = 0, bytes = 0, skippedFiles = 0, skippedBytes = 0;
+        Path normRoot = root.normalize();
+        try (ZipInputStream zis = new ZipInputStream(new BufferedInputStream(Files.newInputStream(archive), BUFFER_SIZE))) {
+            ZipEntry ze;
+            while ((ze = zis.getNextEntry()) != null) {
+                if (progress.isCancelled())
+                    throw new CancellationException("Operation %s was cancelled".formatted(progress.getOperation()));
+                if (ze.isDirectory()) continue;
+                Manifest.Entry e = manifest.get(ze.getName());
+                if (e == null) continue;
+
+                Path target = normRoot.resolve(e.path()).normalize();
+                if (!target.startsWith(normRoot)) throw new IOException("Invalid archive entry: " + e.path());
+                Path dest = destination.resolve(e, target);
+                if (dest == null) {
+                    skippedFiles++;
+                    skippedBytes += e.size();
+                } else {
+                    progress.started(target);
+                    Files.createDirectories(dest.getParent());
+                    Files.copy(zis, dest, REPLACE_EXISTING);
+                    Files.setLastModifiedTime(dest, FileTime.fromMillis(e.modified()));
+                    files++;
+                    bytes += e.size();
+                }
+                progress.completed(e.size());
+            }
+        }
+        return new CopyStats(files, bytes, skippedFiles, skippedBytes);
+    }
+
+    /**
+     * Checks whether the given file already has the content of the given archive entry. Sizes and modification times
+     * are compared first, the CRC is computed only if needed.
+     */
+    public static boolean isUpToDate(Path file, Manifest.Entry entry) throws IOException {
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException ex) {
+            return false;
+        }
+        if (!attrs.isRegularFile() || attrs.size() != entry.size()) return false;
+        if (attrs.lastModifiedTime().toMillis() == entry.modified()) return true;
+        return crcToString(crc(file)).equals(entry.hash());
+    }
+
+    public static long crc(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+
+    private static String crcToString(long crc) {
+        return "%08x".formatted(crc);
+    }
+
+    //================================================================================
+    // Internal Classes
+    //================================================================================
+    @FunctionalInterface
+    public interface Destination {
+        /**
+         * @param entry  the entry being extracted
+         * @param target the path of the entry in the extraction root
+         * @return the path at which the entry's data must be written, or null to skip it
+         */
+        Path resolve(Manifest.Entry entry, Path target) throws IOException;
+    }
+}
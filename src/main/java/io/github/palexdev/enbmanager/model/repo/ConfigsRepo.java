@@ -5,106 +5,355 @@ import io.github.palexdev.enbmanager.components.dialogs.DialogBase;
 import io.github.palexdev.enbmanager.components.dialogs.DialogServiceBase;
 import io.github.palexdev.enbmanager.components.dialogs.DialogServiceBase.DialogConfig;
 import io.github.palexdev.enbmanager.events.ConfigsChangedEvent;
+import io.github.palexdev.enbmanager.model.Trash;
 import io.github.palexdev.enbmanager.model.games.Game;
+import io.github.palexdev.enbmanager.utils.CopyEngine;
+import io.github.palexdev.enbmanager.utils.CopyEngine.CopyStats;
+import io.github.palexdev.enbmanager.utils.CopyEngine.CopyTask;
+import io.github.palexdev.enbmanager.utils.CopyProgress;
 import io.github.palexdev.enbmanager.utils.FileUtils;
+import io.github.palexdev.enbmanager.utils.UIUtils;
 import io.github.palexdev.enbmanager.views.MainView;
 import javafx.stage.Modality;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.util.Collection;
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Stream;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * The configs saved for a game.
+ * <p>
+ * The state is an immutable {@link Snapshot}, replaced atomically with a new version at every change. Changes are only
+ * made by a single writer, the {@link Repo}'s thread, while readers on any thread always see a consistent version
+ * without taking locks, see {@link #getSnapshot()}.
+ * <p>
+ * The {@link Repo} keeps the configs of every game, but only the ones of the current game are {@link #setActive(boolean)
+ * active} and publish {@link ConfigsChangedEvent}s. The others are kept up to date silently.
+ */
 public class ConfigsRepo {
     //================================================================================
     // Properties
     //================================================================================
     private final DialogServiceBase dialogs;
+    private final Repo repo;
+    private final CopyEngine copyEngine;
+    private final BlobStore blobs;
     private final Game game;
     private final Path configsPath;
-    private final Map<Path, Config> configs = new LinkedHashMap<>();
+    private final RepoIndex index;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+    // Only accessed by the writer
+    private final Set<Path> touched = new HashSet<>();
+    private List<Config> published;
+    private boolean active = false;
 
     //================================================================================
     // Constructors
     //================================================================================
-    public ConfigsRepo(Game game, Path repoPath) {
+    public ConfigsRepo(Repo repo, Game game) {
         this.dialogs = SpringHelper.getBean(DialogServiceBase.class);
+        this.repo = repo;
+        this.copyEngine = repo.getCopyEngine();
+        this.blobs = repo.getBlobs();
         this.game = game;
-        this.configsPath = initConfigsPath(repoPath);
-        detectConfigs();
+        this.configsPath = initConfigsPath(repo.getRepoPath());
+        this.index = isInitialized() ? RepoIndex.load(configsPath.resolve(RepoIndex.FILE_NAME)) : null;
     }
 
     //================================================================================
     // Methods
     //================================================================================
-    public boolean load(Path gamePath, Config config) {
-        if (!configs.containsKey(config.path())) return false;
-        return doLoad(gamePath, config);
+    /**
+     * Loads the given config in the game's directory.
+     *
+     * @param installed the tracked files currently in the game's directory, used to remove the ones the config
+     *                  lacks if {@link Repo#isPruneOnLoad()} is enabled
+     * @return the load report, or null if the config is not in the repository anymore
+     * @throws CancellationException if the given progress is cancelled, files already written are left in place
+     */
+    public LoadReport load(Path gamePath, Config config, Collection<? extends Path> installed, CopyProgress progress) throws IOException {
+        if (!snapshot.get().contains(config.path())) return null;
+        return doLoad(gamePath, config, installed, progress);
     }
 
-    public boolean save(Path gamePath, String name, Collection<? extends Path> files) {
+    /**
+     * Saves the given files as the config with the given name, replacing the existing one if any.
+     * Callers are expected to ask the user for confirmation first, see {@link #contains(String)}.
+     *
+     * @throws CancellationException if the given progress is cancelled, the existing config is left untouched
+     */
+    public boolean save(Path gamePath, String name, Collection<? extends Path> files, CopyProgress progress) throws IOException {
         Path path = configsPath.resolve(name);
-        if (configs.containsKey(path)) {
-            boolean overwrite = askOverwrite(name);
-            if (overwrite) doDelete(configs.get(path));
+        Config old = snapshot.get().configs().get(path);
+
+        // The old config is disposed only after the new one has been saved, so that blobs shared by
+        // the two are not deleted and stored again
+        Config config;
+        try {
+            config = doSave(gamePath, path, files, progress);
+        } catch (CancellationException | IOException ex) {
+            // Blobs already stored are not referenced by any manifest
+            collectGarbage();
+            throw ex;
         }
-        Config config = Config.from(path).addFiles(files);
-        boolean saved = doSave(gamePath, config);
-        configs.put(path, config);
-        configsChanged();
-        return saved;
+        try {
+            if (old != null && old.location().equals(config.location())) {
+                collectGarbage();
+            } else if (old != null) {
+                doDelete(old);
+            }
+        } finally {
+            Map<Path, Config> next = edit();
+            next.put(path, config);
+            publish(next);
+            touched.add(path);
+            configsChanged();
+        }
+        return true;
     }
 
-    public boolean delete(Config config) {
-        if (!configs.containsKey(config.path())) return false;
-        boolean deleted = doDelete(config);
+    /**
+     * Moves the given config to the {@link Trash}.
+     *
+     * @return the trashed item, or null if the config is not in the repository
+     */
+    public Trash.Item delete(Config config) throws IOException {
+        if (!snapshot.get().contains(config.path())) return null;
+        Trash.Item item = doDelete(config);
         configsChanged();
-        return deleted;
+        return item;
+    }
+
+    /**
+     * Restores a config previously deleted with {@link #delete(Config)}, if the undo window did not expire yet.
+     */
+    public boolean restore(Trash.Item item) throws IOException {
+        try {
+            return repo.getTrash().restore(item);
+        } finally {
+            detectConfigs();
+        }
     }
 
-    protected boolean doLoad(Path gamePath, Config config) {
+    protected LoadReport doLoad(Path gamePath, Config config, Collection<? extends Path> installed, CopyProgress progress) throws IOException {
+        LoadJournal journal = null;
         try {
-            Path path = config.path();
-            for (Path source : config.files()) {
-                Path relative = path.relativize(source);
-                Path target = gamePath.resolve(relative);
-                FileUtils.copy(source, target);
+            boolean incremental = repo.isIncrementalLoad();
+            if (repo.isAtomicLoad()) journal = LoadJournal.begin(repo.getJournalPath(), gamePath, roots(config));
+            LoadJournal j = journal;
+            Set<Path> loaded = ConcurrentHashMap.newKeySet();
+            CopyStats stats = switch (config.format()) {
+                case DIRECTORY -> {
+                    Path path = config.path();
+                    Activator activator = Activator.forLoad(
+                        path, gamePath, repo.getActivationMode(), repo.getTransferOptions(), progress.chunkListener()
+                    );
+                    List<CopyTask> tasks = new ArrayList<>();
+                    for (Path source : config.files()) {
+                        Path relative = path.relativize(source);
+                        tasks.add(new CopyTask(source, gamePath.resolve(relative)));
+                    }
+                    yield transfer(tasks, j, t -> {
+                        loaded.add(t.target());
+                        if (incremental && isUpToDate(t.source(), t.target())) return false;
+                        activator.activate(t.source(), (j != null) ? j.stage(t.target()) : t.target());
+                        return true;
+                    }, progress);
+                }
+                case BLOBS -> {
+                    // Blobs are shared, so the modification time is kept by the manifest and restored here.
+                    // Links share the blob's metadata, so they are left untouched
+                    Activator activator = Activator.forLoad(
+                        blobs.getRoot(), gamePath, repo.getActivationMode(), repo.getTransferOptions(), progress.chunkListener()
+                    );
+                    Map<Path, Manifest.Entry> entries = new HashMap<>();
+                    List<CopyTask> tasks = new ArrayList<>();
+                    for (Manifest.Entry e : config.manifest().getEntries()) {
+                        Path target = e.resolve(gamePath);
+                        entries.put(target, e);
+                        tasks.add(new CopyTask(blobs.resolve(e.hash()), target, e.size()));
+                    }
+                    yield transfer(tasks, j, t -> {
+                        loaded.add(t.target());
+                        Manifest.Entry e = entries.get(t.target());
+                        if (incremental && isUpToDate(t.source(), t.target(), e.size(), e.modified(), e.hash()))
+                            return false;
+                        Path dest = (j != null) ? j.stage(t.target()) : t.target();
+                        Activator.Strategy strategy = activator.activate(t.source(), dest);
+                        if (strategy == Activator.Strategy.COPY)
+                            Files.setLastModifiedTime(dest, FileTime.fromMillis(e.modified()));
+                        return true;
+                    }, progress);
+                }
+                case ARCHIVE -> ConfigArchive.extract(config.location(), config.manifest(), gamePath, (e, target) -> {
+                    loaded.add(target);
+                    if (incremental && ConfigArchive.isUpToDate(target, e)) return null;
+                    return (j != null) ? j.stage(target) : target;
+                }, progress);
+            };
+
+            List<Path> prunable = repo.isPruneOnLoad() ? prunable(gamePath, installed, loaded) : List.of();
+            if (journal != null) {
+                prunable.forEach(journal::delete);
+                journal.commit();
+            } else {
+                for (Path file : prunable) {
+                    Files.deleteIfExists(file);
+                    FileUtils.deleteEmptyParents(file, gamePath);
+                }
             }
-            return true;
-        } catch (IOException ex) {
-            ex.printStackTrace(); // TODO improve?
-            return false;
+            return new LoadReport(config, stats, prunable.size());
+        } catch (IOException | CancellationException ex) {
+            // A committed load is kept in the journal and completed later, see LoadJournal
+            if (journal != null) {
+                try {
+                    journal.rollback();
+                } catch (IOException rex) {
+                    ex.addSuppressed(rex);
+                }
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Copies the given tasks to the game's directory. With a journal the target directories are not created here,
+     * {@link LoadJournal#stage(Path)} creates and tracks them, so that they can be removed if the load is undone.
+     */
+    protected CopyStats transfer(List<CopyTask> tasks, LoadJournal journal, CopyEngine.FileAction action, CopyProgress progress) throws IOException {
+        return (journal != null) ?
+            copyEngine.forEachFile(tasks, action, progress) :
+            copyEngine.copy(tasks, action, progress);
+    }
+
+    /**
+     * @return the top-level paths of the given config, relative to the config itself
+     */
+    protected Set<Path> roots(Config config) {
+        Set<Path> roots = new LinkedHashSet<>();
+        for (Path file : config.files()) {
+            roots.add(config.path().relativize(file));
         }
+        return roots;
     }
 
-    protected boolean doSave(Path gamePath, Config config) {
+    protected boolean isUpToDate(Path source, Path target) throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(source, BasicFileAttributes.class);
+        return isUpToDate(source, target, attrs.size(), attrs.lastModifiedTime().toMillis(), null);
+    }
+
+    /**
+     * Checks whether the target already has the same content of the source.
+     * <p>
+     * Sizes are compared first, then modification times, then whether the two are the same file (e.g. hard links),
+     * and only as a last resort the content hashes.
+     *
+     * @param hash the source's content hash if known, null to compute it only if needed
+     */
+    protected boolean isUpToDate(Path source, Path target, long size, long modified, String hash) throws IOException {
+        BasicFileAttributes attrs;
         try {
-            Path path = config.path();
-            for (Path source : config.files()) {
-                Path relative = gamePath.relativize(source);
-                Path target = path.resolve(relative);
-                FileUtils.copy(source, target);
+            attrs = Files.readAttributes(target, BasicFileAttributes.class);
+        } catch (NoSuchFileException ex) {
+            return false;
+        }
+        if (!attrs.isRegularFile() || attrs.size() != size) return false;
+        if (attrs.lastModifiedTime().toMillis() == modified) return true;
+
+        Object key = attrs.fileKey();
+        if (key != null && key.equals(Files.readAttributes(source, BasicFileAttributes.class).fileKey())) return true;
+
+        String expected = (hash != null) ? hash : FileUtils.hash(source);
+        return expected.equals(FileUtils.hash(target));
+    }
+
+    /**
+     * Collects from the given installed paths, recursively, every file that was not part of the loaded config.
+     */
+    protected List<Path> prunable(Path gamePath, Collection<? extends Path> installed, Set<Path> loaded) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (Path entry : installed) {
+            if (!entry.startsWith(gamePath) || !Files.exists(entry, LinkOption.NOFOLLOW_LINKS)) continue;
+            if (!Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+                if (!loaded.contains(entry)) files.add(entry);
+                continue;
             }
+
+            Files.walkFileTree(entry, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (!loaded.contains(file) && !file.getFileName().toString().endsWith(LoadJournal.STAGE_SUFFIX))
+                        files.add(file);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+        return files;
+    }
+
+    /**
+     * Saves the given files in the format specified by {@link Repo#getStorageFormat()}.
+     * <p>
+     * For {@link Config.Format#BLOBS} the files are stored in the {@link BlobStore} and the manifest of the new
+     * configuration is written, files already present in the store are not copied again. For
+     * {@link Config.Format#ARCHIVE} the files are compressed in a new zip, see {@link ConfigArchive}.
+     *
+     * @return the saved configuration
+     */
+    protected Config doSave(Path gamePath, Path path, Collection<? extends Path> files, CopyProgress progress) throws IOException {
+        if (repo.getStorageFormat() == Config.Format.ARCHIVE) {
+            Path archive = path.resolveSibling(path.getFileName() + ConfigArchive.EXTENSION);
+            return Config.fromArchive(path, ConfigArchive.write(archive, gamePath, files, progress));
+        }
+
+        Manifest manifest = new Manifest();
+        List<CopyTask> tasks = new ArrayList<>();
+        for (Path source : files) {
+            tasks.add(new CopyTask(source, path.resolve(gamePath.relativize(source))));
+        }
+        copyEngine.forEachFile(tasks, t -> {
+            String hash = blobs.store(t.source());
+            BasicFileAttributes attrs = Files.readAttributes(t.source(), BasicFileAttributes.class);
+            manifest.put(path.relativize(t.target()), hash, attrs.size(), attrs.lastModifiedTime().toMillis());
             return true;
+        }, progress);
+        Config config = Config.fromManifest(path, manifest);
+        manifest.write(config.location());
+        return config;
+    }
+
+    /**
+     * Moves the given config's location to the repository's {@link Trash}. Blobs are collected only once the
+     * config has been deleted for real, as it may be restored in the meantime.
+     *
+     * If the config can't be trashed, the configs are detected again, as it may have been partially moved.
+     *
+     * @return the trashed item
+     */
+    protected Trash.Item doDelete(Config config) throws IOException {
+        try {
+            Runnable onReclaimed = (config.format() == Config.Format.BLOBS) ? repo::collectGarbageLater : null;
+            Trash.Item item = repo.getTrash().trash(repo.getRepoPath(), List.of(config.location()), onReclaimed);
+            Map<Path, Config> next = edit();
+            next.remove(config.path());
+            publish(next);
+            return item;
         } catch (IOException ex) {
-            ex.printStackTrace(); // TODO improve?
-            return false;
+            detectConfigs();
+            throw ex;
         }
     }
 
-    protected boolean doDelete(Config config) {
+    protected void collectGarbage() {
         try {
-            FileUtils.delete(config.path());
-            configs.remove(config.path());
-            return true;
+            blobs.collectGarbage();
         } catch (IOException ex) {
-            ex.printStackTrace(); // TODO improve?
-            detectConfigs();
-            return false;
+            UIUtils.showError("Failed to clean up the unused config files", ex);
         }
     }
 
@@ -127,15 +376,44 @@ public class ConfigsRepo {
         }
     }
 
+    /**
+     * Detects the configs saved for the game.
+     * <p>
+     * The game's directory in the repository is listed only once, along with the attributes of each entry; the
+     * configs are then taken from the {@link RepoIndex}, unless their location changed since they were indexed, in
+     * which case they are read again.
+     */
     protected void detectConfigs() {
         if (!isInitialized()) return;
-        configs.clear();
-        try (Stream<Path> stream = Files.list(configsPath)) {
-            List<Path> dirs = stream.filter(Files::isDirectory).toList();
-            for (Path path : dirs) {
-                Config config = readConfigDir(path);
-                if (config != null) configs.put(path, config);
+        Map<Path, Config> configs = new TreeMap<>();
+        try {
+            Map<Path, BasicFileAttributes> entries = new TreeMap<>();
+            Files.walkFileTree(configsPath, Set.of(), 1, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    entries.put(file, attrs);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+
+            Set<String> names = new HashSet<>();
+            for (Map.Entry<Path, BasicFileAttributes> e : entries.entrySet()) {
+                Path entry = e.getKey();
+                BasicFileAttributes attrs = e.getValue();
+                String fileName = entry.getFileName().toString();
+                RepoIndex.Entry indexed = index.get(fileName, attrs);
+                boolean changed = indexed == null;
+                if (changed) indexed = readEntry(entry, attrs);
+                if (indexed != null) {
+                    names.add(fileName);
+                    Config config = indexed.toConfig(configsPath, fileName);
+                    configs.put(config.path(), config);
+                    // The location changed since it was indexed, e.g. files were added to a directory config
+                    if (changed) touched.add(config.path());
+                }
             }
+            index.retainAll(names);
+            writeIndex();
         } catch (IOException ex) {
             dialogs.showDialog(MainView.class, DialogBase.error(),
                 () -> new DialogConfig<>()
@@ -147,16 +425,114 @@ public class ConfigsRepo {
                     .setContentText("Reason: %s".formatted(ex.getMessage()))
             );
         } finally {
+            publish(configs);
+            configsChanged();
+        }
+    }
+
+    /**
+     * Detects again only the configs with the given names, e.g. because their files changed, while all the others
+     * are kept as they are. Unlike {@link #detectConfigs()}, the index is not trusted, as the changes may not have
+     * altered the size or modification time of the configs' locations.
+     *
+     * @param names the names of the configs to check, null to detect all of them again
+     */
+    public void refresh(Collection<String> names) {
+        if (!isInitialized()) return;
+        if (names == null) {
+            detectConfigs();
+            return;
+        }
+        Map<Path, Config> configs = edit();
+        try {
+            for (String name : names) {
+                configs.remove(configsPath.resolve(name));
+                // Same precedence as detectConfigs(), which goes in alphabetical order
+                for (Path entry : locations(name)) {
+                    String fileName = entry.getFileName().toString();
+                    BasicFileAttributes attrs;
+                    try {
+                        attrs = Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    } catch (NoSuchFileException ex) {
+                        index.remove(fileName);
+                        continue;
+                    }
+                    RepoIndex.Entry indexed = readEntry(entry, attrs);
+                    if (indexed != null) {
+                        Config config = indexed.toConfig(configsPath, fileName);
+                        configs.put(config.path(), config);
+                        touched.add(config.path());
+                    }
+                }
+            }
+            writeIndex();
+        } catch (IOException ex) {
+            UIUtils.showError("Failed to update the configs of %s".formatted(game.name()), ex);
+        } finally {
+            publish(configs);
             configsChanged();
         }
     }
 
-    protected Config readConfigDir(Path dir) {
-        String dirName = dir.getFileName().toString();
-        try (Stream<Path> stream = Files.list(dir)) {
-            Config config = Config.from(dir);
-            stream.forEach(config::addFiles);
-            return config;
+    /**
+     * @return the locations at which the config with the given name may be stored, one for each format
+     */
+    public List<Path> locations(String name) {
+        return List.of(
+            configsPath.resolve(name),
+            configsPath.resolve(name + Manifest.EXTENSION),
+            configsPath.resolve(name + ConfigArchive.EXTENSION)
+        );
+    }
+
+    /**
+     * @return the name of the config stored at the given location
+     */
+    public static String toConfigName(Path location) {
+        String name = location.getFileName().toString();
+        for (String ext : List.of(Manifest.EXTENSION, ConfigArchive.EXTENSION)) {
+            if (name.endsWith(ext)) return name.substring(0, name.length() - ext.length());
+        }
+        return name;
+    }
+
+    /**
+     * Reads the config at the given location and adds it to the index.
+     *
+     * @return the config's index entry, or null if the location is not a config
+     */
+    protected RepoIndex.Entry readEntry(Path entry, BasicFileAttributes attrs) {
+        String fileName = entry.getFileName().toString();
+        RepoIndex.Entry indexed = null;
+        if (attrs.isRegularFile() && isManifest(fileName)) {
+            indexed = readManifest(entry, attrs, Config.Format.BLOBS);
+        } else if (attrs.isRegularFile() && isArchive(fileName)) {
+            indexed = readManifest(entry, attrs, Config.Format.ARCHIVE);
+        } else if (attrs.isDirectory()) {
+            indexed = readConfigDir(entry, attrs);
+        }
+        if (indexed != null) index.put(fileName, indexed);
+        return indexed;
+    }
+
+    /**
+     * Directory configs only need their name to be listed, their files are enumerated on demand, see
+     * {@link Config#files()}.
+     */
+    protected RepoIndex.Entry readConfigDir(Path dir, BasicFileAttributes attrs) {
+        return new RepoIndex.Entry(Config.Format.DIRECTORY, attrs.size(), attrs.lastModifiedTime().toMillis(), null);
+    }
+
+    /**
+     * Reads the manifest of a {@link Config.Format#BLOBS} config, or the central directory of an
+     * {@link Config.Format#ARCHIVE} config.
+     */
+    protected RepoIndex.Entry readManifest(Path file, BasicFileAttributes attrs, Config.Format format) {
+        String fileName = file.getFileName().toString();
+        String name = fileName.substring(0, fileName.lastIndexOf('.'));
+        try {
+            Manifest manifest = (format == Config.Format.ARCHIVE) ? ConfigArchive.read(file) : Manifest.read(file);
+            return new RepoIndex.Entry(format, attrs.size(), attrs.lastModifiedTime().toMillis(), manifest);
         } catch (IOException ex) {
             dialogs.showDialog(MainView.class, DialogBase.error(),
                 () -> new DialogConfig<>()
@@ -164,13 +540,34 @@ public class ConfigsRepo {
                     .setShowMinimize(false)
                     .setCenterInOwnerNode(false)
                     .setModality(Modality.APPLICATION_MODAL)
-                    .setHeaderText("Failed to read config %s".formatted(dirName))
+                    .setHeaderText("Failed to read config %s".formatted(name))
                     .setContentText("Reason: %s".formatted(ex.getMessage()))
             );
             return null;
         }
     }
 
+    protected void writeIndex() {
+        try {
+            index.write();
+        } catch (IOException ex) {
+            // Only a cache, the configs will be read again at the next start
+            UIUtils.showError("Failed to save the configs index", ex);
+        }
+    }
+
+    protected boolean isManifest(String fileName) {
+        return fileName.endsWith(Manifest.EXTENSION);
+    }
+
+    protected boolean isArchive(String fileName) {
+        return fileName.endsWith(ConfigArchive.EXTENSION);
+    }
+
+    public boolean contains(String name) {
+        return snapshot.get().contains(configsPath.resolve(name));
+    }
+
     protected boolean askOverwrite(String name) {
         return dialogs.showConfirmDialog(MainView.class, DialogBase.DialogType.WARN, "Overwrite",
             () -> new DialogConfig<>()
@@ -181,8 +578,93 @@ public class ConfigsRepo {
         );
     }
 
+    /**
+     * @return a mutable copy of the current configs, to be edited and then {@link #publish(Map) published}
+     */
+    protected Map<Path, Config> edit() {
+        return new TreeMap<>(snapshot.get().configs());
+    }
+
+    /**
+     * Replaces the current snapshot with a new version made of the given configs.
+     */
+    protected void publish(Map<Path, Config> configs) {
+        Snapshot current = snapshot.get();
+        snapshot.set(Snapshot.of(current.version() + 1, configs));
+    }
+
+    /**
+     * Makes these configs the current ones, or not. When activated, a reset {@link ConfigsChangedEvent} is published
+     * with the current snapshot. Must be called by the writer.
+     */
+    protected void setActive(boolean active) {
+        if (this.active == active) return;
+        this.active = active;
+        published = null;
+        if (active) configsChanged();
+    }
+
+    /**
+     * Publishes the changes since the last {@link ConfigsChangedEvent}, the first one is a reset. Does nothing if
+     * these configs are not {@link #setActive(boolean) active}.
+     */
     protected void configsChanged() {
-        SpringHelper.notify(new ConfigsChangedEvent(configs.values()));
+        if (!active) {
+            touched.clear();
+            return;
+        }
+        List<Config> current = snapshot.get().list();
+        List<Config> previous = published;
+        published = current;
+        if (previous == null) {
+            touched.clear();
+            SpringHelper.notify(new ConfigsChangedEvent(current));
+            return;
+        }
+        List<ConfigsChangedEvent.Change> changes = diff(previous, current);
+        touched.clear();
+        if (!changes.isEmpty()) SpringHelper.notify(new ConfigsChangedEvent(current, changes));
+    }
+
+    /**
+     * Computes the changes to turn the first list into the second. Both lists are sorted by path, so removals are
+     * applied first, from the last, then additions and updates from the first.
+     */
+    protected List<ConfigsChangedEvent.Change> diff(List<Config> previous, List<Config> current) {
+        Map<Path, Config> next = new HashMap<>();
+        current.forEach(c -> next.put(c.path(), c));
+        Map<Path, Config> prev = new HashMap<>();
+        previous.forEach(c -> prev.put(c.path(), c));
+
+        List<ConfigsChangedEvent.Change> changes = new ArrayList<>();
+        for (int i = previous.size() - 1; i >= 0; i--) {
+            Config old = previous.get(i);
+            if (!next.containsKey(old.path()))
+                changes.add(new ConfigsChangedEvent.Change(ConfigsChangedEvent.Change.Type.REMOVED, i, old));
+        }
+        for (int i = 0; i < current.size(); i++) {
+            Config config = current.get(i);
+            Config old = prev.get(config.path());
+            if (old == null) {
+                changes.add(new ConfigsChangedEvent.Change(ConfigsChangedEvent.Change.Type.ADDED, i, config));
+            } else if (touched.contains(config.path()) || !isSame(old, config)) {
+                changes.add(new ConfigsChangedEvent.Change(ConfigsChangedEvent.Change.Type.UPDATED, i, config));
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * @return whether the two instances describe the same config, as it happens when configs are detected again
+     */
+    protected boolean isSame(Config a, Config b) {
+        if (a == b) return true;
+        // Files are not compared, that would enumerate them, changes to directory configs are reported as touched
+        if (a.format() != b.format()) return false;
+        Manifest ma = a.manifest();
+        Manifest mb = b.manifest();
+        if (ma == null || mb == null) return ma == mb;
+        return ma.size() == mb.size() && ma.totalSize() == mb.totalSize();
     }
 
     //================================================================================
@@ -199,4 +681,33 @@ public class ConfigsRepo {
     public Path getConfigsPath() {
         return configsPath;
     }
+
+    /**
+     * @return the current version of the configs
+     */
+    public Snapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    //================================================================================
+    // Internal Classes
+    //================================================================================
+
+    /**
+     * An immutable version of the configs.
+     *
+     * @param configs the configs by path, sorted
+     */
+    public record Snapshot(long version, SortedMap<Path, Config> configs, List<Config> list) {
+        public static final Snapshot EMPTY = of(0, Map.of());
+
+        public static Snapshot of(long version, Map<Path, Config> configs) {
+            SortedMap<Path, Config> sorted = new TreeMap<>(configs);
+            return new Snapshot(version, Collections.unmodifiableSortedMap(sorted), List.copyOf(sorted.values()));
+        }
+
+        public boolean contains(Path path) {
+            return configs.containsKey(path);
+        }
+    }
 }
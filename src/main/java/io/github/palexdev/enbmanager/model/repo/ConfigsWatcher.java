@@ -0,0 +1,133 @@
+package io.github.palexdev.enbmanager.model.repo;
+
+import io.github.palexdev.enbmanager.model.FileEvent;
+import io.github.palexdev.enbmanager.model.FileWatchService;
+import io.github.palexdev.enbmanager.model.WriteTracker;
+import io.github.palexdev.enbmanager.utils.EventCoalescer;
+import io.github.palexdev.enbmanager.utils.UIUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Watches the configs of a game in the repository, see {@link ConfigsRepo#getConfigsPath()}, for changes made outside
+ * the app, e.g. presets copied in or synced from another machine.
+ * <p>
+ * The configs' directory is watched along with the directories of {@link Config.Format#DIRECTORY} configs, but not
+ * deeper. Each event is mapped to the name of the config it belongs to, and names are batched by an
+ * {@link EventCoalescer} on a low-priority thread, so that importing dozens of presets results in a single update.
+ * Events caused by the app itself, see {@link WriteTracker}, and by the index or temporary files are ignored.
+ */
+public class ConfigsWatcher implements Closeable {
+    //================================================================================
+    // Properties
+    //================================================================================
+    private final Path configsPath;
+    private final WriteTracker writes;
+    private final FileWatchService.Subscription subscription;
+    private final EventCoalescer<String> coalescer;
+
+    //================================================================================
+    // Constructors
+    //================================================================================
+
+    /**
+     * @param handler receives the names of the changed configs, or null if all of them should be checked again
+     */
+    public ConfigsWatcher(FileWatchService watchService, WriteTracker writes, Path configsPath,
+                          Duration quietWindow, Consumer<Collection<String>> handler) throws IOException {
+        this.configsPath = configsPath;
+        this.writes = writes;
+        this.coalescer = new EventCoalescer<>(
+            "configs-watch-coalescer", quietWindow, n -> n,
+            names -> handler.accept(names.contains("") ? null : Set.copyOf(names)),
+            Thread.MIN_PRIORITY
+        );
+        this.subscription = watchService.subscribe("configs-repo", this::isRelevant, this::onEvent);
+        try {
+            subscription.watch(configsPath);
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(configsPath)) {
+                for (Path entry : stream) {
+                    if (isRelevant(entry) && Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) subscription.watch(entry);
+                }
+            }
+        } catch (IOException ex) {
+            close();
+            throw ex;
+        }
+    }
+
+    //================================================================================
+    // Methods
+    //================================================================================
+    protected void onEvent(FileEvent event) {
+        if (event.kind() == FileEvent.Kind.OVERFLOW) {
+            // The empty name stands for all configs
+            coalescer.accept("");
+            return;
+        }
+        Path path = event.path();
+        // Configs restored by the app must be watched as well
+        if (event.directory() && configsPath.equals(path.getParent())) {
+            try {
+                subscription.watch(path);
+            } catch (IOException ex) {
+                UIUtils.showError(
+                    "Changes to config %s won't be detected automatically".formatted(toConfigName(path)), ex
+                );
+            }
+        }
+        if (writes.isSelfWrite(path)) return;
+        coalescer.accept(toConfigName(path));
+    }
+
+    /**
+     * @return whether the given path is a config's location or a file of a config's directory
+     */
+    protected boolean isRelevant(Path path) {
+        if (!path.startsWith(configsPath) || path.equals(configsPath)) return false;
+        Path rel = configsPath.relativize(path);
+        if (rel.getNameCount() > 2) return false;
+        String top = rel.getName(0).toString();
+        return !top.startsWith(".") && !top.endsWith(".tmp");
+    }
+
+    /**
+     * @return the name of the config the given path belongs to
+     */
+    protected String toConfigName(Path path) {
+        return ConfigsRepo.toConfigName(configsPath.resolve(configsPath.relativize(path).getName(0)));
+    }
+
+    @Override
+    public void close() {
+        subscription.close();
+        coalescer.close();
+    }
+
+    //================================================================================
+    // Getters
+    //================================================================================
+    public Path getConfigsPath() {
+        return configsPath;
+    }
+
+    public FileWatchService.Stats getStats() {
+        return subscription.getStats();
+    }
+
+    /**
+     * @return the counters of the coalescer, to check how many changes are merged into a single update
+     */
+    public EventCoalescer.Stats getCoalescerStats() {
+        return coalescer.getStats();
+    }
+}
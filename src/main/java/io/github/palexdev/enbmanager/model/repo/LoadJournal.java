@@ -0,0 +1,311 @@
+package io.github.palexdev.enbmanager.model.repo;
+
+import io.github.palexdev.enbmanager.utils.FileUtils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Makes the load of a configuration crash-safe without backing up the game's directory.
+ * <p>
+ * New files are first written to a staging file beside their target, see {@link #stage(Path)}, while the journal
+ * records in the {@link Phase#STAGING} phase which top-level paths of the game are involved. Once everything has
+ * been staged the journal is atomically rewritten in the {@link Phase#COMMITTED} phase, listing every rename and
+ * deletion to perform. Only then the staged files are swapped in with same-directory {@link StandardCopyOption#ATOMIC_MOVE}
+ * renames.
+ * <p>
+ * The directories that the staging files need are created by {@link #stage(Path)} too, and recorded in the journal
+ * before being created, so that undoing the load also removes the ones left empty.
+ * <p>
+ * If the app dies in the middle, {@link #recover(Path)} inspects the journal at the next start: a load that was still
+ * staging is rolled back by deleting the staged files and the created directories, leaving the previous config
+ * untouched; a committed one is rolled forward by completing the renames and deletions.
+ * <p>
+ * A committed load is never rolled back, not even if the swap fails: the journal and the staged files are kept, so
+ * that the swap is completed by the next load, see {@link #begin(Path, Path, Collection)}, or at the next start.
+ */
+public class LoadJournal {
+    //================================================================================
+    // Static Properties
+    //================================================================================
+    public static final String FILE_NAME = "load.journal";
+    public static final String STAGE_SUFFIX = ".enbm-stage";
+    private static final String HEADER = "# ENBManager load journal v1";
+
+    //================================================================================
+    // Properties
+    //================================================================================
+    private final Path file;
+    private final Path gamePath;
+    private final Set<Path> roots;
+    private final Map<Path, Path> staged = new ConcurrentHashMap<>();
+    private final List<Path> deletions = new ArrayList<>();
+    private final Set<Path> directories = new LinkedHashSet<>();
+    private Phase phase = Phase.STAGING;
+
+    //================================================================================
+    // Constructors
+    //================================================================================
+    protected LoadJournal(Path file, Path gamePath, Collection<Path> roots) {
+        this.file = file;
+        this.gamePath = gamePath;
+        this.roots = new LinkedHashSet<>(roots);
+    }
+
+    /**
+     * Starts a new journaled load, the journal is written immediately in the {@link Phase#STAGING} phase.
+     * <p>
+     * If the journal of a previous load is still there, because its swap failed, that load is completed first.
+     *
+     * @param dir   the directory in which to keep the journal
+     * @param roots the top-level paths of the game's directory that the load may touch
+     */
+    public static LoadJournal begin(Path dir, Path gamePath, Collection<Path> roots) throws IOException {
+        recover(dir);
+        LoadJournal journal = new LoadJournal(dir.resolve(FILE_NAME), gamePath, roots);
+        journal.write(Phase.STAGING);
+        return journal;
+    }
+
+    //================================================================================
+    // Methods
+    //================================================================================
+
+    /**
+     * Reserves the staging file for the given target, the caller is responsible for writing it. The missing parent
+     * directories are created and journaled.
+     *
+     * @return the path at which the new content of the target must be written
+     */
+    public Path stage(Path target) throws IOException {
+        Path parent = target.getParent();
+        if (parent != null && !Files.isDirectory(parent)) createDirectories(parent);
+        Path stage = stagePath(target);
+        Files.deleteIfExists(stage);
+        staged.put(target, stage);
+        return stage;
+    }
+
+    /**
+     * Schedules the deletion of the given file, performed after the staged files have been swapped in.
+     */
+    public void delete(Path file) {
+        deletions.add(file);
+    }
+
+    /**
+     * Marks the load as committed and swaps in all the staged files, then performs the scheduled deletions
+     * and removes the journal.
+     * <p>
+     * If the swap fails, the journal is kept in the {@link Phase#COMMITTED} phase along with the remaining staged
+     * files, so that the load can be rolled forward later.
+     */
+    public void commit() throws IOException {
+        write(Phase.COMMITTED);
+        phase = Phase.COMMITTED;
+        apply();
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Discards all the staged files, the game's directory is left as it was before the load.
+     * <p>
+     * Does nothing once the load is {@link #isCommitted() committed}, as some files may have been swapped in already.
+     * In that case only rolling forward leaves the game's directory consistent.
+     * <p>
+     * If some staged files cannot be deleted, the journal is kept so that they are discarded by the next
+     * {@link #recover(Path)}.
+     *
+     * @throws IOException the first failure, any other is added as suppressed
+     */
+    public void rollback() throws IOException {
+        if (phase == Phase.COMMITTED) return;
+        IOException failure = null;
+        for (Path stage : staged.values()) {
+            try {
+                Files.deleteIfExists(stage);
+            } catch (IOException ex) {
+                if (failure == null) failure = ex;
+                else failure.addSuppressed(ex);
+            }
+        }
+        deleteDirectories();
+        if (failure != null) throw failure;
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Creates the given directory and its missing parents. They are journaled before being created, so that
+     * a crash can't leave them behind.
+     */
+    protected synchronized void createDirectories(Path dir) throws IOException {
+        List<Path> missing = new ArrayList<>();
+        for (Path p = dir; p != null && p.startsWith(gamePath) && !Files.isDirectory(p); p = p.getParent())
+            missing.add(p);
+        if (missing.isEmpty() || directories.containsAll(missing)) {
+            Files.createDirectories(dir);
+            return;
+        }
+        directories.addAll(missing);
+        write(Phase.STAGING);
+        Files.createDirectories(dir);
+    }
+
+    /**
+     * Deletes the directories created while staging, deepest first. The ones that are not empty are kept, the user
+     * or another program may have put something in them.
+     */
+    protected synchronized void deleteDirectories() {
+        List<Path> sorted = new ArrayList<>(directories);
+        sorted.sort(Comparator.comparingInt(Path::getNameCount).reversed());
+        for (Path dir : sorted) {
+            try {
+                Files.deleteIfExists(dir);
+            } catch (IOException ignored) {}
+        }
+    }
+
+    protected void apply() throws IOException {
+        for (Map.Entry<Path, Path> e : staged.entrySet()) {
+            Path stage = e.getValue();
+            if (Files.exists(stage, LinkOption.NOFOLLOW_LINKS))
+                Files.move(stage, e.getKey(), ATOMIC_MOVE, REPLACE_EXISTING);
+        }
+        for (Path path : deletions) {
+            Files.deleteIfExists(path);
+            FileUtils.deleteEmptyParents(path, gamePath);
+        }
+    }
+
+    /**
+     * Deletes the leftovers of a load that was interrupted before being committed. Only the journaled roots
+     * are scanned, so this does not walk the whole game's directory.
+     */
+    protected void discardStaged() throws IOException {
+        for (Path root : roots) {
+            Path path = gamePath.resolve(root);
+            if (!Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                Files.deleteIfExists(stagePath(path));
+                continue;
+            }
+            Files.walkFileTree(path, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    if (file.getFileName().toString().endsWith(STAGE_SUFFIX)) Files.delete(file);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+    }
+
+    protected void write(Phase phase) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            writer.write("game\t" + gamePath);
+            writer.newLine();
+            writer.write("phase\t" + phase.name());
+            writer.newLine();
+            for (Path root : roots) {
+                writer.write("root\t" + root);
+                writer.newLine();
+            }
+            if (phase == Phase.STAGING) {
+                for (Path dir : directories) {
+                    writer.write("mkdir\t" + dir);
+                    writer.newLine();
+                }
+            }
+            if (phase == Phase.COMMITTED) {
+                for (Map.Entry<Path, Path> e : staged.entrySet()) {
+                    writer.write("move\t" + e.getValue() + "\t" + e.getKey());
+                    writer.newLine();
+                }
+                for (Path path : deletions) {
+                    writer.write("delete\t" + path);
+                    writer.newLine();
+                }
+            }
+        }
+        Files.move(tmp, file, ATOMIC_MOVE, REPLACE_EXISTING);
+    }
+
+    /**
+     * Completes or undoes the load that was in progress when the app last stopped, if any.
+     *
+     * @param dir the directory in which the journal is kept
+     * @return whether a journal was found
+     */
+    public static boolean recover(Path dir) throws IOException {
+        Path file = dir.resolve(FILE_NAME);
+        if (!Files.isRegularFile(file)) return false;
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        if (lines.isEmpty() || !HEADER.equals(lines.get(0))) {
+            Files.delete(file);
+            return true;
+        }
+
+        Path gamePath = null;
+        Phase phase = Phase.STAGING;
+        List<Path> roots = new ArrayList<>();
+        Map<Path, Path> moves = new LinkedHashMap<>();
+        List<Path> deletions = new ArrayList<>();
+        List<Path> directories = new ArrayList<>();
+        for (String line : lines.subList(1, lines.size())) {
+            String[] split = line.split("\t");
+            switch (split[0]) {
+                case "game" -> gamePath = Path.of(split[1]);
+                case "phase" -> phase = Phase.valueOf(split[1]);
+                case "root" -> roots.add(Path.of(split[1]));
+                case "move" -> moves.put(Path.of(split[2]), Path.of(split[1]));
+                case "delete" -> deletions.add(Path.of(split[1]));
+                case "mkdir" -> directories.add(Path.of(split[1]));
+            }
+        }
+        if (gamePath == null) {
+            Files.delete(file);
+            return true;
+        }
+
+        LoadJournal journal = new LoadJournal(file, gamePath, roots);
+        if (phase == Phase.COMMITTED) {
+            journal.staged.putAll(moves);
+            journal.deletions.addAll(deletions);
+            journal.apply();
+        } else {
+            journal.directories.addAll(directories);
+            journal.discardStaged();
+            journal.deleteDirectories();
+        }
+        Files.delete(file);
+        return true;
+    }
+
+    /**
+     * @return whether the journal has been written in the {@link Phase#COMMITTED} phase
+     */
+    public boolean isCommitted() {
+        return phase == Phase.COMMITTED;
+    }
+
+    public static Path stagePath(Path target) {
+        return target.resolveSibling(target.getFileName() + STAGE_SUFFIX);
+    }
+
+    //================================================================================
+    // Internal Classes
+    //================================================================================
+    public enum Phase {
+        STAGING, COMMITTED
+    }
+}
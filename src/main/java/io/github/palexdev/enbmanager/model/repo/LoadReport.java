@@ -0,0 +1,12 @@
+package io.github.palexdev.enbmanager.model.repo;
+
+import io.github.palexdev.enbmanager.utils.CopyEngine.CopyStats;
+
+/**
+ * Summarizes the outcome of a config load.
+ *
+ * @param stats   the files written to the game's directory and the ones skipped because already up-to-date
+ * @param removed the number of files deleted from the game's directory because the loaded config lacks them
+ */
+public record LoadReport(Config config, CopyStats stats, long removed) {
+}
@@ -0,0 +1,165 @@
+package io.github.palexdev.enbmanager.model.repo;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Describes the content of a saved configuration by mapping each file's path, relative to the game's directory, to
+ * the blob that holds its data in the {@link BlobStore}.
+ * <p>
+ * Manifests are stored as plain text files, one entry per line, in the following format:
+ * {@code hash<TAB>size<TAB>lastModified<TAB>relative/path}. Paths always use '/' as the separator.
+ * <p>
+ * Manifests may come from other machines, e.g. synced or downloaded, so entries are validated when created: a path
+ * must stay inside the directory it is resolved against, and a hash must be a plain hex string, see {@link Entry}.
+ * <p>
+ * Entries can be added concurrently.
+ */
+public class Manifest {
+    //================================================================================
+    // Static Properties
+    //================================================================================
+    public static final String EXTENSION = ".manifest";
+    private static final String HEADER = "# ENBManager manifest v1";
+
+    //================================================================================
+    // Properties
+    //================================================================================
+    private final Map<String, Entry> entries = new ConcurrentSkipListMap<>();
+
+    //================================================================================
+    // Static Methods
+    //================================================================================
+    public static Manifest read(Path file) throws IOException {
+        Manifest manifest = new Manifest();
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) continue;
+                String[] parts = line.split("\t", 4);
+                if (parts.length != 4) throw new IOException("Malformed manifest line: " + line);
+                try {
+                    manifest.put(new Entry(parts[3], parts[0], Long.parseLong(parts[1]), Long.parseLong(parts[2])));
+                } catch (IllegalArgumentException ex) {
+                    throw new IOException("Malformed manifest line: " + line, ex);
+                }
+            }
+        }
+        return manifest;
+    }
+
+    public static String toEntryPath(Path relative) {
+        return relative.toString().replace(relative.getFileSystem().getSeparator(), "/");
+    }
+
+    //================================================================================
+    // Methods
+    //================================================================================
+
+    /**
+     * Writes the manifest to a temporary file first, which is then moved to the given destination, so that a
+     * failure never leaves a truncated manifest behind.
+     */
+    public void write(Path file) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (Entry e : entries.values()) {
+                writer.write("%s\t%d\t%d\t%s".formatted(e.hash(), e.size(), e.modified(), e.path()));
+                writer.newLine();
+            }
+        }
+        Files.move(tmp, file, REPLACE_EXISTING, ATOMIC_MOVE);
+    }
+
+    public Manifest put(Entry entry) {
+        entries.put(entry.path(), entry);
+        return this;
+    }
+
+    public Manifest put(Path relative, String hash, long size, long modified) {
+        return put(new Entry(toEntryPath(relative), hash, size, modified));
+    }
+
+    public Entry get(String path) {
+        return entries.get(path);
+    }
+
+    /**
+     * @return the first segment of every entry's path, in other words the top-level files and directories of the
+     * configuration
+     */
+    public Set<String> roots() {
+        Set<String> roots = new LinkedHashSet<>();
+        for (String path : entries.keySet()) {
+            int i = path.indexOf('/');
+            roots.add(i < 0 ? path : path.substring(0, i));
+        }
+        return roots;
+    }
+
+    public Set<String> hashes() {
+        Set<String> hashes = new HashSet<>();
+        entries.values().forEach(e -> hashes.add(e.hash()));
+        return hashes;
+    }
+
+    public long totalSize() {
+        return entries.values().stream().mapToLong(Entry::size).sum();
+    }
+
+    //================================================================================
+    // Getters
+    //================================================================================
+    public Collection<Entry> getEntries() {
+        return Collections.unmodifiableCollection(entries.values());
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    //================================================================================
+    // Internal Classes
+    //================================================================================
+
+    /**
+     * @throws IllegalArgumentException if the path is absolute or has empty, {@code .} or {@code ..} segments, or if
+     *                                  the hash is not a hex string
+     */
+    public record Entry(String path, String hash, long size, long modified) {
+        public Entry {
+            if (!isSafePath(path)) throw new IllegalArgumentException("Invalid entry path: " + path);
+            if (hash.isEmpty() || !hash.chars().allMatch(c -> Character.digit(c, 16) >= 0))
+                throw new IllegalArgumentException("Invalid entry hash: " + hash);
+        }
+
+        /**
+         * @throws IllegalArgumentException if the resolved path falls outside the given root
+         */
+        public Path resolve(Path root) {
+            Path normRoot = root.normalize();
+            Path target = normRoot.resolve(path).normalize();
+            if (!target.startsWith(normRoot) || target.equals(normRoot))
+                throw new IllegalArgumentException("Entry %s is outside of %s".formatted(path, root));
+            return target;
+        }
+
+        private static boolean isSafePath(String path) {
+            if (path == null || path.isEmpty() || path.indexOf('\\') >= 0 || path.indexOf(':') >= 0) return false;
+            for (String segment : path.split("/", -1)) {
+                if (segment.isEmpty() || segment.equals(".") || segment.equals("..")) return false;
+            }
+            return true;
+        }
+    }
+}
@@ -1,62 +1,410 @@
 package io.github.palexdev.enbmanager.model.repo;
 
+import io.github.palexdev.enbmanager.SpringHelper;
+import io.github.palexdev.enbmanager.components.dialogs.DialogBase;
+import io.github.palexdev.enbmanager.components.dialogs.DialogServiceBase;
+import io.github.palexdev.enbmanager.components.dialogs.DialogServiceBase.DialogConfig;
+import io.github.palexdev.enbmanager.events.AppCloseEvent;
+import io.github.palexdev.enbmanager.events.AppReadyEvent;
+import io.github.palexdev.enbmanager.events.RepoProgressEvent;
+import io.github.palexdev.enbmanager.model.FileWatchService;
+import io.github.palexdev.enbmanager.model.Trash;
+import io.github.palexdev.enbmanager.model.WriteTracker;
 import io.github.palexdev.enbmanager.model.games.Game;
+import io.github.palexdev.enbmanager.model.games.GamesManager;
+import io.github.palexdev.enbmanager.settings.AppSettings;
 import io.github.palexdev.enbmanager.utils.AppDirs;
+import io.github.palexdev.enbmanager.utils.CopyEngine;
+import io.github.palexdev.enbmanager.utils.CopyProgress;
+import io.github.palexdev.enbmanager.utils.FileUtils;
+import io.github.palexdev.enbmanager.utils.UIUtils;
+import io.github.palexdev.enbmanager.views.MainView;
+import javafx.stage.Modality;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+/**
+ * Entry point for all the operations on the configurations repository.
+ * <p>
+ * Load, save and delete are potentially long operations, so they are executed asynchronously and return a
+ * {@link CompletableFuture}. They all run on a single background thread, which means that they are serialized and
+ * never race on the repository's state. While running, they publish {@link RepoProgressEvent}s, and they can be
+ * stopped by cancelling the returned future.
+ * <p>
+ * The same thread is the only writer of the {@link ConfigsRepo}'s state: detection, refreshes and operations all run
+ * there and publish immutable {@link ConfigsRepo.Snapshot snapshots}, which other threads can read without locking.
+ * <p>
+ * The configs of the games which have a directory in the repository are detected in background once the app is
+ * ready, and then kept in memory, each updated by its own {@link ConfigsWatcher}. So, switching game just activates
+ * the configs already detected.
+ */
 @Component
 public class Repo {
     //================================================================================
     // Properties
     //================================================================================
     private final AppDirs dirs;
-    private ConfigsRepo configsRepo;
+    private final AppSettings settings;
+    private final Trash trash;
+    private final WriteTracker writes;
+    private final FileWatchService watchService;
+    private final GamesManager gamesManager;
+    private final DialogServiceBase dialogs;
+    private final CopyEngine copyEngine;
+    private final BlobStore blobs;
+    private final ExecutorService executor;
+    private final Map<Game, ConfigsRepo> configsRepos = new HashMap<>();
+    private final Map<Game, ConfigsWatcher> configsWatchers = new HashMap<>();
+    private volatile ConfigsRepo configsRepo;
 
     //================================================================================
     // Constructors
     //================================================================================
-    public Repo(AppDirs dirs) {
+    public Repo(AppDirs dirs, AppSettings settings, Trash trash, WriteTracker writes, FileWatchService watchService,
+                GamesManager gamesManager, DialogServiceBase dialogs) {
         this.dirs = dirs;
-        dirs.getConfigPath(); // Trigger path init so that if path can't be used the app shutdowns
+        this.settings = settings;
+        this.trash = trash;
+        this.writes = writes;
+        this.watchService = watchService;
+        this.gamesManager = gamesManager;
+        this.dialogs = dialogs;
+        this.copyEngine = new CopyEngine(settings.getCopyWorkers());
+        // Trigger path init so that if path can't be used the app shutdowns
+        Path repoPath = dirs.getConfigPath();
+        this.blobs = (repoPath != null) ? new BlobStore(repoPath) : null;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "repo-ops");
+            t.setDaemon(true);
+            return t;
+        });
+        recoverLoad();
+        // Purged manifests may have been the last references to some blobs
+        if (repoPath != null) trash.purge(repoPath, this::collectGarbageLater);
     }
 
     //================================================================================
     // Methods
     //================================================================================
-    public boolean loadConfig(Path gamePath, Config config) {
-        if (configsRepo == null) return false;
-        return configsRepo.load(gamePath, config);
+    public CompletableFuture<LoadReport> loadConfig(Path gamePath, Config config, Collection<? extends Path> installed) {
+        ConfigsRepo configsRepo = this.configsRepo;
+        if (configsRepo == null) return CompletableFuture.completedFuture(null);
+        return submit("Loading %s".formatted(config.name()), p -> configsRepo.load(gamePath, config, installed, p));
     }
 
-    public boolean saveConfig(Path gamePath, String name, Collection<? extends Path> files) {
-        if (configsRepo == null) return false;
-        return configsRepo.save(gamePath, name, files);
+    /**
+     * Saves the given files as a new config with the given name.
+     * <p>
+     * If a config with the same name already exists, the user is asked whether to overwrite it before the operation
+     * is started, so this must be called from the JavaFX thread.
+     */
+    public CompletableFuture<Boolean> saveConfig(Path gamePath, String name, Collection<? extends Path> files) {
+        ConfigsRepo configsRepo = this.configsRepo;
+        if (configsRepo == null) return CompletableFuture.completedFuture(false);
+        if (configsRepo.contains(name) && !configsRepo.askOverwrite(name))
+            return CompletableFuture.completedFuture(false);
+        return submit(
+            "Saving %s".formatted(name), configsRepo, List.of(name),
+            p -> configsRepo.save(gamePath, name, files, p)
+        );
     }
 
-    public boolean deleteConfig(Config config) {
-        if (configsRepo == null) return false;
-        return configsRepo.delete(config);
+    /**
+     * Moves the given config to the {@link Trash}.
+     *
+     * @return a future completed with the trashed item, which can be {@link #restoreConfig(Trash.Item) restored},
+     * or null if the config is not in the repository. If the config could not be deleted, the future completes
+     * exceptionally
+     */
+    public CompletableFuture<Trash.Item> deleteConfig(Config config) {
+        ConfigsRepo configsRepo = this.configsRepo;
+        if (configsRepo == null) return CompletableFuture.completedFuture(null);
+        return submit(
+            "Deleting %s".formatted(config.name()), configsRepo, List.of(config.name()),
+            p -> configsRepo.delete(config)
+        );
+    }
+
+    public CompletableFuture<Boolean> restoreConfig(Trash.Item item) {
+        ConfigsRepo configsRepo = this.configsRepo;
+        if (configsRepo == null) return CompletableFuture.completedFuture(false);
+        List<String> names = item.entries().keySet().stream().map(ConfigsRepo::toConfigName).toList();
+        return submit("Restoring config", configsRepo, names, p -> configsRepo.restore(item));
     }
 
     public void refreshConfigs() {
+        ConfigsRepo configsRepo = this.configsRepo;
         if (configsRepo == null) return;
-        configsRepo.detectConfigs();
+        executor.execute(configsRepo::detectConfigs);
+    }
+
+    /**
+     * Schedules a collection of the unreferenced blobs on the repository's thread, so that it never races with
+     * a save.
+     */
+    protected void collectGarbageLater() {
+        if (blobs == null || executor.isShutdown()) return;
+        executor.execute(() -> {
+            try {
+                blobs.collectGarbage();
+            } catch (IOException ex) {
+                UIUtils.showError("Failed to clean up the unused config files", ex);
+            }
+        });
+    }
+
+    /**
+     * Completes or undoes an atomic load interrupted by a crash, see {@link LoadJournal}.
+     */
+    protected void recoverLoad() {
+        try {
+            Path journalPath = getJournalPath();
+            if (journalPath != null) LoadJournal.recover(journalPath);
+        } catch (IOException ex) {
+            ex.printStackTrace();
+            dialogs.showDialog(MainView.class, DialogBase.error(),
+                () -> new DialogConfig<>()
+                    .setShowAlwaysOnTop(false)
+                    .setShowMinimize(false)
+                    .setCenterInOwnerNode(false)
+                    .setModality(Modality.APPLICATION_MODAL)
+                    .setHeaderText("Failed to complete the last config load")
+                    .setContentText(
+                        "The game's directory may contain files of both the previous and the loaded config. " +
+                            "It will be tried again at the next start.\nReason: %s".formatted(ex.getMessage())
+                    )
+            );
+        }
     }
 
-    public ConfigsRepo getConfigsRepo(Game game) {
-        if (configsRepo == null || configsRepo.getGame() != game) {
-            configsRepo = new ConfigsRepo(game, getRepoPath());
+    /**
+     * Runs the given operation, which does not write the configs, on the repository's thread.
+     *
+     * @see #submit(String, ConfigsRepo, Collection, RepoOperation)
+     */
+    protected <T> CompletableFuture<T> submit(String operation, RepoOperation<T> op) {
+        return submit(operation, null, null, op);
+    }
+
+    /**
+     * Runs the given operation on the repository's thread.
+     * <p>
+     * The operation receives a {@link CopyProgress} that publishes {@link RepoProgressEvent}s, and that is cancelled
+     * when the returned future is. If the operation fails, the future completes exceptionally with its exception.
+     * <p>
+     * The writes to the given configs are ignored by the {@link ConfigsWatcher}, and once the operation is done
+     * those configs are {@link ConfigsRepo#refresh(Collection) refreshed} instead. External changes to the other
+     * configs are still detected in the meantime.
+     *
+     * @param names the names of the configs the operation writes, null if it writes none
+     */
+    protected <T> CompletableFuture<T> submit(String operation, ConfigsRepo configsRepo, Collection<String> names,
+                                              RepoOperation<T> op) {
+        CopyProgress progress = new CopyProgress(operation, p -> SpringHelper.notify(new RepoProgressEvent(p)));
+        CompletableFuture<T> future = CompletableFuture.supplyAsync(() -> {
+            WriteTracker.Operation write = null;
+            if (names != null) {
+                List<Path> locations = names.stream().flatMap(n -> configsRepo.locations(n).stream()).toList();
+                write = writes.begin(configsRepo.getConfigsPath(), locations);
+            }
+            try {
+                return op.run(progress);
+            } catch (IOException ex) {
+                throw new CompletionException(ex);
+            } finally {
+                if (write != null) write.end(() -> {
+                    if (!executor.isShutdown()) executor.execute(() -> configsRepo.refresh(names));
+                });
+                progress.finish();
+            }
+        }, executor);
+        future.whenComplete((r, ex) -> {
+            if (future.isCancelled()) progress.cancel();
+        });
+        return future;
+    }
+
+    /**
+     * Makes the configs of the given game the current ones. If they have already been detected, they are published
+     * immediately, otherwise as soon as the detection ends.
+     *
+     * @return the configs of the given game, which may still be empty
+     */
+    public synchronized ConfigsRepo getConfigsRepo(Game game) {
+        ConfigsRepo configsRepo = prefetch(game);
+        if (this.configsRepo != configsRepo) {
+            this.configsRepo = configsRepo;
+            if (!executor.isShutdown()) executor.execute(this::activateCurrent);
         }
         return configsRepo;
     }
 
+    /**
+     * @return the cached configs of the given game. If absent, they are created, their detection is scheduled on
+     * the repository's thread and a {@link ConfigsWatcher} is started for them
+     */
+    protected synchronized ConfigsRepo prefetch(Game game) {
+        ConfigsRepo configsRepo = configsRepos.get(game);
+        if (configsRepo != null) return configsRepo;
+        configsRepo = new ConfigsRepo(this, game);
+        configsRepos.put(game, configsRepo);
+        if (!executor.isShutdown()) executor.execute(configsRepo::detectConfigs);
+        watchConfigs(configsRepo);
+        return configsRepo;
+    }
+
+    /**
+     * Deactivates all the cached configs but the current ones. Runs on the repository's thread, so that only the last
+     * switch counts when the game changes more times in a row.
+     */
+    protected void activateCurrent() {
+        ConfigsRepo current = this.configsRepo;
+        List<ConfigsRepo> all;
+        synchronized (this) {
+            all = List.copyOf(configsRepos.values());
+        }
+        all.forEach(r -> r.setActive(r == current));
+    }
+
+    /**
+     * Starts a {@link ConfigsWatcher} for the given configs. Changes are applied on the repository's thread,
+     * whether the configs are the current ones or not.
+     */
+    protected synchronized void watchConfigs(ConfigsRepo configsRepo) {
+        if (!configsRepo.isInitialized()) return;
+        try {
+            ConfigsWatcher watcher = new ConfigsWatcher(
+                watchService, writes, configsRepo.getConfigsPath(), settings.getRepoWatchQuietWindow(),
+                names -> {
+                    if (executor.isShutdown()) return;
+                    executor.execute(() -> configsRepo.refresh(names));
+                }
+            );
+            configsWatchers.put(configsRepo.getGame(), watcher);
+        } catch (IOException ex) {
+            UIUtils.showError(
+                "Changes to the configs of %s won't be detected automatically".formatted(configsRepo.getGame().name()), ex
+            );
+        }
+    }
+
+    //================================================================================
+    // Events
+    //================================================================================
+    /**
+     * Detects in background the configs of the games which already have some in the repository, so that switching
+     * game later is instant. Games without a configs' directory are skipped, it is created only when the game is
+     * actually chosen.
+     */
+    @EventListener
+    public void onAppReady(AppReadyEvent event) {
+        Path repoPath = getRepoPath();
+        if (repoPath == null || executor.isShutdown()) return;
+        for (Game game : gamesManager.getGames()) {
+            executor.execute(() -> {
+                if (Files.isDirectory(repoPath.resolve(game.name()))) prefetch(game);
+            });
+        }
+    }
+
+    @EventListener
+    public void onExit(AppCloseEvent event) {
+        synchronized (this) {
+            configsWatchers.values().forEach(ConfigsWatcher::close);
+            configsWatchers.clear();
+        }
+        executor.shutdownNow();
+        copyEngine.shutdown();
+    }
+
     //================================================================================
     // Getters/Setters
     //================================================================================
     public Path getRepoPath() {
         return dirs.getConfigPath();
     }
+
+    public CopyEngine getCopyEngine() {
+        return copyEngine;
+    }
+
+    public BlobStore getBlobs() {
+        return blobs;
+    }
+
+    public Trash getTrash() {
+        return trash;
+    }
+
+    /**
+     * @return the most aggressive strategy allowed to place config files in the game's directory,
+     * as specified by the user's settings
+     */
+    public Activator.Mode getActivationMode() {
+        return Activator.Mode.parse(settings.activationMode.get());
+    }
+
+    public boolean isIncrementalLoad() {
+        return settings.incrementalLoad.get();
+    }
+
+    public boolean isPruneOnLoad() {
+        return settings.pruneOnLoad.get();
+    }
+
+    /**
+     * @return the options for the FileChannel copy backend, or null if configs should be copied with
+     * {@code Files.copy}, see {@link AppSettings#getCopyBackend()}
+     */
+    public FileUtils.TransferOptions getTransferOptions() {
+        if ("files".equals(settings.getCopyBackend())) return null;
+        return new FileUtils.TransferOptions(settings.getCopyChunkSize(), settings.isCopyVerify());
+    }
+
+    /**
+     * @return the format in which new configs are saved, {@link Config.Format#ARCHIVE} if specified by the user's
+     * settings, {@link Config.Format#BLOBS} otherwise
+     */
+    public Config.Format getStorageFormat() {
+        return "ARCHIVE".equalsIgnoreCase(settings.storageFormat.get()) ? Config.Format.ARCHIVE : Config.Format.BLOBS;
+    }
+
+    /**
+     * @return whether loads should stage the new files and swap them in only once all of them are ready,
+     * see {@link LoadJournal}
+     */
+    public boolean isAtomicLoad() {
+        return settings.atomicLoad.get();
+    }
+
+    /**
+     * @return the directory in which the {@link LoadJournal} is kept
+     */
+    public Path getJournalPath() {
+        return dirs.getCachePath();
+    }
+
+    //================================================================================
+    // Internal Classes
+    //================================================================================
+
+    /**
+     * An operation run by {@link #submit(String, RepoOperation)}.
+     */
+    @FunctionalInterface
+    protected interface RepoOperation<T> {
+        T run(CopyProgress progress) throws IOException;
+    }
 }
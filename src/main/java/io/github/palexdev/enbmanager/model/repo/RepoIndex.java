@@ -0,0 +1,209 @@
+package io.github.palexdev.enbmanager.model.repo;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * On-disk cache of the configurations saved for a game, so that detecting them does not require to read every config
+ * directory and manifest each time.
+ * <p>
+ * Every entry is keyed by the file name of the config's physical location, see {@link Config#location()}, and records
+ * the location's size and modification time at the time it was read. An entry is valid as long as those attributes
+ * did not change: adding or removing files in a config directory changes its modification time, and manifests are
+ * always replaced when saved. Only the invalid entries need to be read again.
+ * <p>
+ * The index is a plain text file, one line per record:
+ * <ul>
+ *     <li>{@code C<TAB>format<TAB>size<TAB>modified<TAB>fileName}: starts a new config</li>
+ *     <li>{@code E<TAB>hash<TAB>size<TAB>modified<TAB>path}: a manifest entry of a {@link Config.Format#BLOBS} or
+ *     {@link Config.Format#ARCHIVE} config</li>
+ * </ul>
+ * The files of {@link Config.Format#DIRECTORY} configs are not indexed, they are enumerated on demand, see
+ * {@link Config#files()}.
+ */
+public class RepoIndex {
+    //================================================================================
+    // Static Properties
+    //================================================================================
+    public static final String FILE_NAME = ".index";
+    private static final String HEADER = "# ENBManager repo index v2";
+    private static final String HEADER_V1 = "# ENBManager repo index v1";
+
+    //================================================================================
+    // Properties
+    //================================================================================
+    private final Path file;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private boolean dirty = false;
+
+    //================================================================================
+    // Constructors
+    //================================================================================
+    protected RepoIndex(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Reads the index at the given path. If the file does not exist or is malformed, an empty index is returned,
+     * which will be rebuilt from scratch.
+     */
+    public static RepoIndex load(Path file) {
+        RepoIndex index = new RepoIndex(file);
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            index.read(reader);
+        } catch (NoSuchFileException ignored) {
+        } catch (IOException | RuntimeException ex) {
+            // Only a cache, it's rebuilt by reading the configs again
+            ex.printStackTrace();
+            index.entries.clear();
+            index.dirty = true;
+        }
+        return index;
+    }
+
+    //================================================================================
+    // Methods
+    //================================================================================
+
+    /**
+     * @return the entry for the given location's file name, or null if absent or outdated according to the given
+     * attributes
+     */
+    public Entry get(String fileName, BasicFileAttributes attrs) {
+        Entry entry = entries.get(fileName);
+        if (entry == null) return null;
+        if (entry.size() != attrs.size() || entry.modified() != attrs.lastModifiedTime().toMillis()) return null;
+        return entry;
+    }
+
+    public void put(String fileName, Entry entry) {
+        entries.put(fileName, entry);
+        dirty = true;
+    }
+
+    public void remove(String fileName) {
+        dirty |= entries.remove(fileName) != null;
+    }
+
+    /**
+     * Removes the entries of the configs that are not in the given collection of file names anymore.
+     */
+    public void retainAll(Collection<String> fileNames) {
+        dirty |= entries.keySet().retainAll(fileNames);
+    }
+
+    /**
+     * Writes the index to disk if it changed since it was loaded. As for manifests, a temporary file is moved in
+     * place so that the index is never left truncated.
+     */
+    public void write() throws IOException {
+        if (!dirty) return;
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                Entry entry = e.getValue();
+                writer.write("C\t%s\t%d\t%d\t%s".formatted(entry.format(), entry.size(), entry.modified(), e.getKey()));
+                writer.newLine();
+                if (entry.manifest() == null) continue;
+                for (Manifest.Entry m : entry.manifest().getEntries()) {
+                    writer.write("E\t%s\t%d\t%d\t%s".formatted(m.hash(), m.size(), m.modified(), m.path()));
+                    writer.newLine();
+                }
+            }
+        }
+        Files.move(tmp, file, REPLACE_EXISTING, ATOMIC_MOVE);
+        dirty = false;
+    }
+
+    protected void read(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (!HEADER.equals(line) && !HEADER_V1.equals(line)) throw new IOException("Unknown index format: " + line);
+
+        String fileName = null;
+        Config.Format format = null;
+        long size = 0, modified = 0;
+        Manifest manifest = null;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) continue;
+            String[] parts = line.split("\t");
+            switch (parts[0]) {
+                case "C" -> {
+                    if (fileName != null) entries.put(fileName, new Entry(format, size, modified, manifest));
+                    String[] c = line.split("\t", 5);
+                    format = Config.Format.valueOf(c[1]);
+                    size = Long.parseLong(c[2]);
+                    modified = Long.parseLong(c[3]);
+                    fileName = c[4];
+                    manifest = (format != Config.Format.DIRECTORY) ? new Manifest() : null;
+                }
+                case "F" -> {
+                    // v1 also listed the files of directory configs, now enumerated on demand
+                }
+                case "E" -> {
+                    String[] m = line.split("\t", 5);
+                    if (manifest == null) throw new IOException("Manifest entry outside a manifest config: " + line);
+                    manifest.put(new Manifest.Entry(m[4], m[1], Long.parseLong(m[2]), Long.parseLong(m[3])));
+                }
+                default -> throw new IOException("Malformed index line: " + line);
+            }
+        }
+        if (fileName != null) entries.put(fileName, new Entry(format, size, modified, manifest));
+    }
+
+    //================================================================================
+    // Getters
+    //================================================================================
+    public Path getFile() {
+        return file;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    //================================================================================
+    // Internal Classes
+    //================================================================================
+
+    /**
+     * Cached description of a config.
+     *
+     * @param size     the size of the config's location when it was read
+     * @param modified the modification time of the config's location when it was read
+     * @param manifest the manifest of a {@link Config.Format#BLOBS} or {@link Config.Format#ARCHIVE} config,
+     *                 null otherwise
+     */
+    public record Entry(Config.Format format, long size, long modified, Manifest manifest) {
+
+        /**
+         * Builds the {@link Config} described by this entry.
+         *
+         * @param configsPath the game's directory in the repository
+         * @param fileName    the file name of the config's location
+         */
+        public Config toConfig(Path configsPath, String fileName) {
+            return switch (format) {
+                case DIRECTORY -> Config.from(configsPath.resolve(fileName));
+                case BLOBS -> {
+                    String name = fileName.substring(0, fileName.length() - Manifest.EXTENSION.length());
+                    yield Config.fromManifest(configsPath.resolve(name), manifest);
+                }
+                case ARCHIVE -> {
+                    String name = fileName.substring(0, fileName.length() - ConfigArchive.EXTENSION.length());
+                    yield Config.fromArchive(configsPath.resolve(name), manifest);
+                }
+            };
+        }
+    }
+}
@@ -8,6 +8,8 @@ import io.github.palexdev.mfxcomponents.theming.MaterialThemes;
 import javafx.application.Application;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.Locale;
 import java.util.Map;
 
 @Component
@@ -20,11 +22,25 @@ public class AppSettings extends Settings {
     public final StringSetting lastGame = registerString("last.game", "Last session's game", "");
     public final StringSetting lastTheme = registerString("last.theme", "Last session's theme", MaterialThemes.INDIGO_LIGHT.name());
     public final BooleanSetting lastThemeMode = registerBoolean("last.theme.mode", "Last session's theme mode", false);
+    public final StringSetting activationMode = registerString("repo.activation", "How configs are placed in the game's directory", "COPY");
+    public final BooleanSetting incrementalLoad = registerBoolean("repo.load.incremental", "Copy only the files that differ from the ones in the game's directory", true);
+    public final BooleanSetting pruneOnLoad = registerBoolean("repo.load.prune", "Remove tracked files the loaded config lacks", false);
+    public final StringSetting storageFormat = registerString("repo.format", "How new configs are stored, BLOBS or ARCHIVE", "BLOBS");
+    public final BooleanSetting atomicLoad = registerBoolean("repo.load.atomic", "Stage loaded files and swap them in atomically", false);
 
     private final Application.Parameters parameters;
     private Boolean debug = null;
     private Boolean resetSettings = null;
     private Boolean invalidateThemesCache = null;
+    private Integer copyWorkers = null;
+    private String copyBackend = null;
+    private Long copyChunkSize = null;
+    private Boolean copyVerify = null;
+    private Duration undoWindow = null;
+    private String watchMode = null;
+    private Duration watchQuietWindow = null;
+    private Integer ioPermits = null;
+    private Duration repoWatchQuietWindow = null;
 
     //================================================================================
     // Constructors
@@ -68,4 +84,139 @@ public class AppSettings extends Settings {
         }
         return invalidateThemesCache;
     }
+
+    /**
+     * @return the number of workers used by the repository to copy files in parallel. Can be specified with the
+     * "copy-workers" named parameter, defaults to the number of available processors clamped between 2 and 8
+     */
+    public int getCopyWorkers() {
+        if (copyWorkers == null) {
+            Map<String, String> named = parameters.getNamed();
+            int def = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+            try {
+                copyWorkers = Math.max(1, Integer.parseInt(named.getOrDefault("copy-workers", String.valueOf(def))));
+            } catch (NumberFormatException ex) {
+                copyWorkers = def;
+            }
+        }
+        return copyWorkers;
+    }
+
+    /**
+     * @return the backend used to copy files during loads, "channel" for FileChannel transfers or "files" for
+     * {@code Files.copy}. Can be specified with the "copy-backend" named parameter, defaults to "channel"
+     */
+    public String getCopyBackend() {
+        if (copyBackend == null) {
+            Map<String, String> named = parameters.getNamed();
+            copyBackend = named.getOrDefault("copy-backend", "channel").toLowerCase(Locale.ROOT);
+        }
+        return copyBackend;
+    }
+
+    /**
+     * @return the size in bytes of the chunks transferred by the "channel" copy backend. Can be specified in MiB with
+     * the "copy-chunk-size" named parameter, defaults to 8MiB
+     */
+    public long getCopyChunkSize() {
+        if (copyChunkSize == null) {
+            Map<String, String> named = parameters.getNamed();
+            try {
+                copyChunkSize = Math.max(1, Long.parseLong(named.getOrDefault("copy-chunk-size", "8"))) * 1024 * 1024;
+            } catch (NumberFormatException ex) {
+                copyChunkSize = 8L * 1024 * 1024;
+            }
+        }
+        return copyChunkSize;
+    }
+
+    /**
+     * @return whether the "channel" copy backend should verify each file after writing it. Can be specified with the
+     * "copy-verify" named parameter, defaults to false
+     */
+    public boolean isCopyVerify() {
+        if (copyVerify == null) {
+            Map<String, String> named = parameters.getNamed();
+            copyVerify = Boolean.parseBoolean(named.getOrDefault("copy-verify", "false"));
+        }
+        return copyVerify;
+    }
+
+    /**
+     * @return for how long deleted files and configs can be restored before they are deleted for real. Can be
+     * specified in seconds with the "undo-window" named parameter, defaults to 8 seconds
+     */
+    public Duration getUndoWindow() {
+        if (undoWindow == null) {
+            Map<String, String> named = parameters.getNamed();
+            try {
+                undoWindow = Duration.ofSeconds(Math.max(1, Long.parseLong(named.getOrDefault("undo-window", "8"))));
+            } catch (NumberFormatException ex) {
+                undoWindow = Duration.ofSeconds(8);
+            }
+        }
+        return undoWindow;
+    }
+
+    /**
+     * @return how the game's directory is watched for changes, "shallow" to watch only the root and the tracked
+     * ENB/ReShade folders, or "recursive" to watch the whole directory tree. Can be specified with the "watch-mode"
+     * named parameter, defaults to "shallow"
+     */
+    public String getWatchMode() {
+        if (watchMode == null) {
+            Map<String, String> named = parameters.getNamed();
+            watchMode = named.getOrDefault("watch-mode", "shallow").toLowerCase(Locale.ROOT);
+        }
+        return watchMode;
+    }
+
+    /**
+     * @return for how long the file system must be quiet before the changes detected in the game's directory are
+     * applied. Can be specified in milliseconds with the "watch-quiet-window" named parameter, defaults to 150ms
+     */
+    public Duration getWatchQuietWindow() {
+        if (watchQuietWindow == null) {
+            Map<String, String> named = parameters.getNamed();
+            try {
+                watchQuietWindow = Duration.ofMillis(Math.max(1, Long.parseLong(named.getOrDefault("watch-quiet-window", "150"))));
+            } catch (NumberFormatException ex) {
+                watchQuietWindow = Duration.ofMillis(150);
+            }
+        }
+        return watchQuietWindow;
+    }
+
+    /**
+     * @return the maximum number of background I/O tasks, like scans, allowed to run at the same time. Can be
+     * specified with the "io-permits" named parameter, defaults to 4
+     */
+    public int getIOPermits() {
+        if (ioPermits == null) {
+            Map<String, String> named = parameters.getNamed();
+            try {
+                ioPermits = Math.max(1, Integer.parseInt(named.getOrDefault("io-permits", "4")));
+            } catch (NumberFormatException ex) {
+                ioPermits = 4;
+            }
+        }
+        return ioPermits;
+    }
+
+    /**
+     * @return for how long the configs in the repository must be left untouched before changes made outside the app
+     * are picked up. Can be specified in milliseconds with the "repo-watch-quiet-window" named parameter, defaults
+     * to 1000ms
+     */
+    public Duration getRepoWatchQuietWindow() {
+        if (repoWatchQuietWindow == null) {
+            Map<String, String> named = parameters.getNamed();
+            try {
+                repoWatchQuietWindow = Duration.ofMillis(Math.max(1, Long.parseLong(named.getOrDefault("repo-watch-quiet-window", "1000"))));
+            } catch (NumberFormatException ex) {
+                repoWatchQuietWindow = Duration.ofMillis(1000);
+            }
+        }
+        return repoWatchQuietWindow;
+    }
 }
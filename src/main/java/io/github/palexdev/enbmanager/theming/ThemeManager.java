@@ -1,5 +1,7 @@
 package io.github.palexdev.enbmanager.theming;
 
+import io.github.palexdev.enbmanager.model.FileEvent;
+import io.github.palexdev.enbmanager.model.FileWatchService;
 import io.github.palexdev.enbmanager.settings.AppSettings;
 import io.github.palexdev.enbmanager.settings.base.StringSetting;
 import io.github.palexdev.enbmanager.utils.AppDirs;
@@ -8,9 +10,6 @@ import io.github.palexdev.mfxcomponents.theming.MaterialThemes;
 import io.github.palexdev.mfxcomponents.theming.UserAgentBuilder;
 import io.github.palexdev.mfxcomponents.theming.base.Theme;
 import io.github.palexdev.mfxcore.utils.fx.CSSFragment;
-import io.methvin.watcher.DirectoryWatcher;
-import io.methvin.watcher.hashing.FileHash;
-import io.methvin.watcher.hashing.FileHasher;
 import javafx.application.Application;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
@@ -21,10 +20,6 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Objects;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 
 import static java.nio.file.StandardOpenOption.CREATE;
 import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
@@ -70,23 +65,17 @@ public class ThemeManager {
     private final AppDirs dirs;
     private final AppSettings settings;
 
-    private final ScheduledExecutorService executor;
-    private DirectoryWatcher watcher;
-    private CompletableFuture<Void> watcherTask;
-
-    private FileHash lastHash;
+    private final FileWatchService watchService;
+    private FileWatchService.Subscription watcher;
+    private FileWatchService.Subscription sourcesWatcher;
 
     //================================================================================
     // Constructors
     //================================================================================
-    public ThemeManager(AppDirs dirs, AppSettings settings) {
+    public ThemeManager(AppDirs dirs, AppSettings settings, FileWatchService watchService) {
         this.dirs = dirs;
         this.settings = settings;
-        executor = Executors.newSingleThreadScheduledExecutor(r -> {
-            Thread t = new Thread(r);
-            t.setDaemon(true);
-            return t;
-        });
+        this.watchService = watchService;
 
         // Trigger path init so that if path can't be used the app shutdowns
         getCachePath();
@@ -110,47 +99,41 @@ public class ThemeManager {
         Path source = projectPath.resolve("src/main/resources/io/github/palexdev/enbmanager/css/AppTheme.css");
         Path target = projectPath.resolve("build/resources/main/io/github/palexdev/enbmanager/css/AppTheme.css");
         if (!Files.exists(source) || !Files.exists(target)) return;
+        if (sourcesWatcher != null) sourcesWatcher.close();
+        Runnable sync = () -> {
+            try {
+                Files.writeString(target, Files.readString(source), CREATE, TRUNCATE_EXISTING);
+                buildUserAgent();
+            } catch (Exception ignored) {}
+        };
+        sync.run();
         try {
-            FileHasher hasher = FileHasher.DEFAULT_FILE_HASHER;
-            executor.scheduleAtFixedRate(() -> {
-                try {
-                    FileHash hash = hasher.hash(source);
-                    if (Objects.equals(lastHash, hash)) return;
-                    lastHash = hash;
-                    Files.writeString(target, Files.readString(source), CREATE, TRUNCATE_EXISTING);
-                    buildUserAgent();
-                } catch (Exception ignored) {}
-            }, 0, 1, TimeUnit.SECONDS);
-        } catch (Exception ignored) {}
+            sourcesWatcher = watchService.subscribe("theme-sources", source::equals, e -> {
+                if (e.kind() != FileEvent.Kind.DELETE) sync.run();
+            }).watch(source.getParent());
+        } catch (IOException ignored) {}
     }
 
     public void watch(boolean rebuild) {
         if (watcher != null) stopWatch();
         try {
             Path path = getCachePath();
-            watcher = DirectoryWatcher.builder()
-                .path(path)
-                .listener(e -> {
+            watcher = watchService.subscribe("themes-cache", p -> {
                     String themeName = getThemeName();
-                    if (themeName.isBlank()) return;
-                    if (e.isDirectory()) return;
-                    Path themePath = e.path();
-                    if (themePath.getFileName().toString().equals(themeName))
-                        reloadThemeFromDisk(themePath, rebuild);
-                }).build();
-            watcherTask = watcher.watchAsync(executor);
+                    return !themeName.isBlank() && p.getFileName().toString().equals(themeName);
+                }, e -> {
+                    if (e.path() == null || e.directory()) return;
+                    reloadThemeFromDisk(e.path(), rebuild);
+                })
+                .watch(path);
         } catch (IOException ignored) {}
     }
 
     public void stopWatch() {
-        try {
-            if (watcher != null) {
-                watcher.close();
-                watcherTask.cancel(true);
-                watcher = null;
-                watcherTask = null;
-            }
-        } catch (IOException ignored) {}
+        if (watcher != null) {
+            watcher.close();
+            watcher = null;
+        }
     }
 
     public void invalidateCache() {
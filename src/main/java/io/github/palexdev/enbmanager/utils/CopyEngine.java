@@ -0,0 +1,236 @@
+package io.github.palexdev.enbmanager.utils;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.file.FileVisitResult.CONTINUE;
+
+/**
+ * Copies files and directory trees by splitting them into per-file tasks, which are then executed by a bounded
+ * pool of workers.
+ * <p>
+ * Directories are created upfront while walking the sources, so that workers only deal with regular files.
+ * Files are scheduled from the largest to the smallest, so that big textures do not end up being the tail of the
+ * operation.
+ * <p>
+ * The copy stops at the first failure: tasks that did not start yet are skipped, the ones in flight are allowed to
+ * finish, and then the exception is rethrown to the caller.
+ */
+public class CopyEngine {
+    //================================================================================
+    // Properties
+    //================================================================================
+    private final int workers;
+    private final ExecutorService executor;
+
+    //================================================================================
+    // Constructors
+    //================================================================================
+    public CopyEngine(int workers) {
+        this.workers = Math.max(1, workers);
+        AtomicInteger count = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(this.workers, r -> {
+            Thread t = new Thread(r, "copy-worker-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    //================================================================================
+    // Methods
+    //================================================================================
+    public CopyStats copy(Path source, Path target) throws IOException {
+        return copy(List.of(new CopyTask(source, target)));
+    }
+
+    /**
+     * Copies every given source to its target. Sources can be both files and directories, the latter are copied
+     * recursively.
+     *
+     * @return the number of files and bytes copied or skipped
+     * @throws IOException           the first error encountered by any of the workers
+     * @throws CancellationException if the given progress was cancelled before all files were processed
+     */
+    public CopyStats copy(Collection<CopyTask> tasks) throws IOException {
+        return copy(tasks, CopyProgress.none());
+    }
+
+    public CopyStats copy(Collection<CopyTask> tasks, CopyProgress progress) throws IOException {
+        return copy(tasks, t -> {
+            FileUtils.copyFile(t.source(), t.target());
+            return true;
+        }, progress);
+    }
+
+    public CopyStats copy(Collection<CopyTask> tasks, FileAction action) throws IOException {
+        return copy(tasks, action, CopyProgress.none());
+    }
+
+    /**
+     * Same as {@link #copy(Collection, CopyProgress)} but each file is transferred by the given action.
+     */
+    public CopyStats copy(Collection<CopyTask> tasks, FileAction action, CopyProgress progress) throws IOException {
+        return execute(expand(tasks, true), action, progress);
+    }
+
+    public CopyStats forEachFile(Collection<CopyTask> tasks, FileAction action) throws IOException {
+        return forEachFile(tasks, action, CopyProgress.none());
+    }
+
+    /**
+     * Expands the given tasks to per-file tasks exactly like {@link #copy(Collection)} does, and then runs the given
+     * action on each of them. Unlike the copy, target directories are not created.
+     */
+    public CopyStats forEachFile(Collection<CopyTask> tasks, FileAction action, CopyProgress progress) throws IOException {
+        return execute(expand(tasks, false), action, progress);
+    }
+
+    /**
+     * Walks the given tasks and converts them to a list of per-file tasks, creating all the needed directories
+     * in the process if the {@code createDirs} flag is true.
+     */
+    protected List<CopyTask> expand(Collection<CopyTask> tasks, boolean createDirs) throws IOException {
+        List<CopyTask> files = new ArrayList<>();
+        for (CopyTask task : tasks) {
+            Path source = task.source();
+            Path target = task.target();
+            if (!Files.isDirectory(source)) {
+                Path parent = target.getParent();
+                if (createDirs && parent != null) Files.createDirectories(parent);
+                long size = (task.size() > 0) ? task.size() : Files.size(source);
+                files.add(new CopyTask(source, target, size));
+                continue;
+            }
+
+            Files.walkFileTree(source, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                    if (createDirs) Files.createDirectories(target.resolve(source.relativize(dir)));
+                    return CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    files.add(new CopyTask(file, target.resolve(source.relativize(file)), attrs.size()));
+                    return CONTINUE;
+                }
+            });
+        }
+        files.sort(Comparator.comparingLong(CopyTask::size).reversed());
+        return files;
+    }
+
+    protected CopyStats execute(List<CopyTask> files, FileAction action, CopyProgress progress) throws IOException {
+        progress.begin(files.size(), files.stream().mapToLong(CopyTask::size).sum());
+        AtomicBoolean failed = new AtomicBoolean(false);
+        AtomicLong copied = new AtomicLong();
+        AtomicLong bytes = new AtomicLong();
+        AtomicLong skipped = new AtomicLong();
+        AtomicLong skippedBytes = new AtomicLong();
+
+        List<Future<?>> futures = new ArrayList<>(files.size());
+        for (CopyTask task : files) {
+            futures.add(executor.submit(() -> {
+                if (failed.get() || progress.isCancelled()) return;
+                try {
+                    progress.started(task.target());
+                    if (action.apply(task)) {
+                        copied.incrementAndGet();
+                        bytes.addAndGet(task.size());
+                    } else {
+                        skipped.incrementAndGet();
+                        skippedBytes.addAndGet(task.size());
+                    }
+                    progress.completed(task.size());
+                } catch (IOException ex) {
+                    failed.set(true);
+                    throw new UncheckedIOException(ex);
+                }
+            }));
+        }
+
+        // Drain all the futures, even after a failure, so that when this returns no worker
+        // is still writing to the targets
+        IOException error = null;
+        boolean interrupted = false;
+        for (Future<?> future : futures) {
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                    failed.set(true);
+                    if (error == null) error = new InterruptedIOException("Copy was interrupted");
+                } catch (ExecutionException ex) {
+                    if (error == null) error = unwrap(ex.getCause());
+                    break;
+                }
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        // Workers aborted by the cancellation fail too, so it takes precedence over errors
+        if (progress.isCancelled()) throw new CancellationException("Operation %s was cancelled".formatted(progress.getOperation()));
+        if (error != null) throw error;
+        return new CopyStats(copied.get(), bytes.get(), skipped.get(), skippedBytes.get());
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private IOException unwrap(Throwable cause) {
+        if (cause instanceof UncheckedIOException uex) return uex.getCause();
+        if (cause instanceof IOException iex) return iex;
+        return new IOException(cause);
+    }
+
+    //================================================================================
+    // Getters
+    //================================================================================
+    public int getWorkers() {
+        return workers;
+    }
+
+    //================================================================================
+    // Internal Classes
+    //================================================================================
+    public record CopyTask(Path source, Path target, long size) {
+        public CopyTask(Path source, Path target) {
+            this(source, target, 0);
+        }
+    }
+
+    /**
+     * The operation executed by the workers on each file.
+     * <p>
+     * Returns whether the file was actually transferred, false means that the file was skipped, for example
+     * because the target was already up-to-date.
+     */
+    @FunctionalInterface
+    public interface FileAction {
+        boolean apply(CopyTask task) throws IOException;
+    }
+
+    public record CopyStats(long files, long bytes, long skippedFiles, long skippedBytes) {
+        public static final CopyStats EMPTY = new CopyStats(0, 0, 0, 0);
+
+        public CopyStats add(CopyStats other) {
+            return new CopyStats(
+                files + other.files, bytes + other.bytes,
+                skippedFiles + other.skippedFiles, skippedBytes + other.skippedBytes
+            );
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package io.github.palexdev.enbmanager.utils;
+
+import java.nio.file.Path;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Tracks the progress of a long-running file operation, and allows to cancel it.
+ * <p>
+ * Workers report each started and completed file; the listener is notified at most once every
+ * {@link #EMIT_INTERVAL_NANOS}, plus once when the operation begins and once when it finishes, so it's safe to
+ * publish events from it.
+ * <p>
+ * Cancellation is cooperative: {@link CopyEngine} stops scheduling files as soon as {@link #isCancelled()} becomes
+ * true.
+ */
+public class CopyProgress {
+    //================================================================================
+    // Static Properties
+    //================================================================================
+    public static final long EMIT_INTERVAL_NANOS = 100_000_000L;
+
+    //================================================================================
+    // Properties
+    //================================================================================
+    private final String operation;
+    private final Consumer<CopyProgress> listener;
+    private final AtomicLong filesDone = new AtomicLong();
+    private final AtomicLong bytesDone = new AtomicLong();
+    private final AtomicLong lastEmit = new AtomicLong();
+    private final ThreadLocal<long[]> partial = ThreadLocal.withInitial(() -> new long[1]);
+    private volatile long filesTotal = -1;
+    private volatile long bytesTotal = -1;
+    private volatile Path currentFile;
+    private volatile boolean cancelled = false;
+    private volatile boolean done = false;
+    private final long start = System.nanoTime();
+
+    //================================================================================
+    // Constructors
+    //================================================================================
+    public CopyProgress(String operation, Consumer<CopyProgress> listener) {
+        this.operation = operation;
+        this.listener = listener;
+    }
+
+    public static CopyProgress none() {
+        return new CopyProgress("", p -> {});
+    }
+
+    //================================================================================
+    // Methods
+    //================================================================================
+    public void begin(long files, long bytes) {
+        filesTotal = files;
+        bytesTotal = bytes;
+        emit();
+    }
+
+    public void started(Path file) {
+        currentFile = file;
+    }
+
+    /**
+     * Reports that part of the current file has been transferred, for files big enough to report their progress
+     * before being completed. The partial bytes are accounted for when the file is {@link #completed(long)} by the
+     * same thread.
+     */
+    public void transferred(long bytes) {
+        partial.get()[0] += bytes;
+        bytesDone.addAndGet(bytes);
+        emitThrottled();
+    }
+
+    public void completed(long bytes) {
+        long[] p = partial.get();
+        filesDone.incrementAndGet();
+        bytesDone.addAndGet(bytes - p[0]);
+        p[0] = 0;
+        emitThrottled();
+    }
+
+    /**
+     * @return a listener for {@link FileUtils#transfer(Path, Path, FileUtils.TransferOptions, FileUtils.ChunkListener)}
+     * that reports each chunk to this progress, and aborts the copy if cancelled
+     */
+    public FileUtils.ChunkListener chunkListener() {
+        return bytes -> {
+            transferred(bytes);
+            return !isCancelled();
+        };
+    }
+
+    public void finish() {
+        done = true;
+        emit();
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    protected void emit() {
+        listener.accept(this);
+    }
+
+    protected void emitThrottled() {
+        long now = System.nanoTime();
+        long last = lastEmit.get();
+        if (now - last >= EMIT_INTERVAL_NANOS && lastEmit.compareAndSet(last, now)) emit();
+    }
+
+    /**
+     * @return whether the given error, as received by a {@link java.util.concurrent.CompletableFuture} callback,
+     * means that the operation was cancelled
+     */
+    public static boolean isCancellation(Throwable ex) {
+        if (ex instanceof CompletionException && ex.getCause() != null) ex = ex.getCause();
+        return ex instanceof CancellationException;
+    }
+
+    public Snapshot snapshot() {
+        double elapsed = (System.nanoTime() - start) / 1_000_000_000.0;
+        long bytes = bytesDone.get();
+        return new Snapshot(
+            operation, filesDone.get(), filesTotal, bytes, bytesTotal,
+            currentFile, elapsed > 0 ? bytes / elapsed : 0, cancelled, done
+        );
+    }
+
+    //================================================================================
+    // Getters
+    //================================================================================
+    public String getOperation() {
+        return operation;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    //================================================================================
+    // Internal Classes
+    //================================================================================
+
+    /**
+     * Immutable view of a {@link CopyProgress} at a certain point in time.
+     * Totals are -1 when still unknown.
+     */
+    public record Snapshot(
+        String operation, long filesDone, long filesTotal, long bytesDone, long bytesTotal,
+        Path currentFile, double bytesPerSecond, boolean cancelled, boolean done
+    ) {
+        /**
+         * @return the completion percentage in the [0, 1] range, or -1 if indeterminate
+         */
+        public double fraction() {
+            if (bytesTotal > 0) return Math.min(1.0, (double) bytesDone / bytesTotal);
+            if (filesTotal > 0) return Math.min(1.0, (double) filesDone / filesTotal);
+            return -1;
+        }
+    }
+}
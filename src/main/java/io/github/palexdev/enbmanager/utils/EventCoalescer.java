@@ -0,0 +1,173 @@
+package io.github.palexdev.enbmanager.utils;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Turns bursts of events into a single batch.
+ * <p>
+ * Events are gathered until none arrives for the quiet window, then the batch is passed to the handler in one call.
+ * Events with the same key are merged, only the last one is kept, in the position of the first. To not starve the
+ * handler while events keep coming, a batch is flushed anyway once it is {@link #MAX_DELAY_FACTOR} quiet windows old.
+ * <p>
+ * The handler runs on the coalescer's own thread, one batch at a time.
+ */
+public class EventCoalescer<E> implements AutoCloseable {
+    //================================================================================
+    // Static Properties
+    //================================================================================
+    public static final int MAX_DELAY_FACTOR = 10;
+
+    //================================================================================
+    // Properties
+    //================================================================================
+    private final long windowNanos;
+    private final Function<E, ?> keyFunction;
+    private final Consumer<List<E>> handler;
+    private final ScheduledExecutorService scheduler;
+
+    private final Map<Object, E> pending = new LinkedHashMap<>();
+    private ScheduledFuture<?> flushTask;
+    private long firstEvent;
+    private long lastEvent;
+    private long generation;
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong merged = new AtomicLong();
+    private final AtomicLong flushed = new AtomicLong();
+
+    //================================================================================
+    // Constructors
+    //================================================================================
+
+    /**
+     * @param name        the name of the coalescer's thread
+     * @param quietWindow for how long no event must arrive before the batch is flushed
+     * @param keyFunction extracts the key by which events are merged
+     * @param handler     the consumer of the batches
+     */
+    public EventCoalescer(String name, Duration quietWindow, Function<E, ?> keyFunction, Consumer<List<E>> handler) {
+        this(name, quietWindow, keyFunction, handler, Thread.NORM_PRIORITY);
+    }
+
+    /**
+     * @param priority the priority of the coalescer's thread, on which the handler runs
+     */
+    public EventCoalescer(String name, Duration quietWindow, Function<E, ?> keyFunction, Consumer<List<E>> handler, int priority) {
+        this.windowNanos = quietWindow.toNanos();
+        this.keyFunction = keyFunction;
+        this.handler = handler;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            t.setPriority(priority);
+            return t;
+        });
+    }
+
+    //================================================================================
+    // Methods
+    //================================================================================
+    public synchronized void accept(E event) {
+        if (scheduler.isShutdown()) return;
+        received.incrementAndGet();
+        long now = System.nanoTime();
+        if (pending.isEmpty()) firstEvent = now;
+        lastEvent = now;
+        Object key = keyFunction.apply(event);
+        if (pending.containsKey(key)) merged.incrementAndGet();
+        pending.put(key, event);
+        if (flushTask == null) schedule(windowNanos);
+    }
+
+    /**
+     * Discards the events gathered so far.
+     */
+    public synchronized void clear() {
+        pending.clear();
+        if (flushTask != null) flushTask.cancel(false);
+        flushTask = null;
+        generation++;
+    }
+
+    protected void schedule(long delayNanos) {
+        long gen = generation;
+        flushTask = scheduler.schedule(() -> tick(gen), delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Flushes the batch if the quiet window elapsed or the batch is too old, otherwise checks again when the window
+     * would elapse. Rescheduling here, rather than on each event, keeps bursts cheap.
+     */
+    protected void tick(long gen) {
+        List<E> batch;
+        synchronized (this) {
+            // The batch this check was scheduled for has been cleared
+            if (gen != generation) return;
+            long now = System.nanoTime();
+            long quietFor = now - lastEvent;
+            long age = now - firstEvent;
+            if (quietFor < windowNanos && age < windowNanos * MAX_DELAY_FACTOR) {
+                long delay = Math.min(windowNanos - quietFor, windowNanos * MAX_DELAY_FACTOR - age);
+                schedule(delay);
+                return;
+            }
+            flushTask = null;
+            if (pending.isEmpty()) return;
+            batch = List.copyOf(pending.values());
+            pending.clear();
+        }
+        flushed.incrementAndGet();
+        try {
+            handler.accept(batch);
+        } catch (Exception ex) {
+            UIUtils.showError("Failed to handle %d file changes".formatted(batch.size()), ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        synchronized (this) {
+            pending.clear();
+        }
+    }
+
+    //================================================================================
+    // Getters
+    //================================================================================
+
+    /**
+     * @return the current values of the counters
+     */
+    public Stats getStats() {
+        return new Stats(received.get(), merged.get(), flushed.get());
+    }
+
+    //================================================================================
+    // Internal Classes
+    //================================================================================
+
+    /**
+     * @param received the number of events received
+     * @param merged   the number of events merged into another one with the same key
+     * @param flushed  the number of batches passed to the handler, in other words the number of updates applied
+     */
+    public record Stats(long received, long merged, long flushed) {
+        /**
+         * @return the average number of events per batch
+         */
+        public double ratio() {
+            return flushed > 0 ? (double) received / flushed : 0;
+        }
+    }
+}
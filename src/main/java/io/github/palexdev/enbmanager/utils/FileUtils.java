@@ -2,11 +2,18 @@ package io.github.palexdev.enbmanager.utils;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.DecimalFormat;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Optional;
 
@@ -34,10 +41,94 @@ public class FileUtils {
         if (Files.isDirectory(source)) {
             copyDirectory(source, target);
         } else {
-            Files.copy(source, target, REPLACE_EXISTING, COPY_ATTRIBUTES);
+            copyFile(source, target);
         }
     }
 
+    public static void copyFile(Path source, Path target) throws IOException {
+        Files.copy(source, target, REPLACE_EXISTING, COPY_ATTRIBUTES);
+    }
+
+    /**
+     * Copies the given file with {@link #transfer(Path, Path, TransferOptions, ChunkListener)} if options are given,
+     * with {@link #copyFile(Path, Path)} otherwise.
+     */
+    public static void copyFile(Path source, Path target, TransferOptions options, ChunkListener listener) throws IOException {
+        if (options == null) {
+            copyFile(source, target);
+            return;
+        }
+        transfer(source, target, options, listener);
+    }
+
+    /**
+     * Copies the given file using {@link FileChannel#transferTo(long, long, WritableByteChannel)}, which allows the
+     * OS to move the data without passing through the JVM's heap (e.g. {@code copy_file_range/sendfile} on Linux).
+     * <p>
+     * The data is transferred in chunks of {@link TransferOptions#chunkSize()} bytes, and the given listener is
+     * notified after each of them, which allows reporting the progress of big files and aborting the copy.
+     * <p>
+     * The existing target is deleted before writing, never overwritten in place, so that if it's a link (see the
+     * repository's activation strategies) the data it points to is not altered. If the copy fails, is aborted, is
+     * shorter than the source (e.g. the source shrank meanwhile) or does not pass the verification, the partial target
+     * is deleted.
+     *
+     * @return the number of transferred bytes
+     * @throws InterruptedIOException if the listener aborted the copy
+     */
+    public static long transfer(Path source, Path target, TransferOptions options, ChunkListener listener) throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(source, BasicFileAttributes.class);
+        Files.deleteIfExists(target);
+        boolean completed = false;
+        try {
+            long position = 0;
+            try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                long size = in.size();
+                while (position < size) {
+                    long n = in.transferTo(position, Math.min(options.chunkSize(), size - position), out);
+                    if (n <= 0) break;
+                    position += n;
+                    if (listener != null && !listener.onChunk(n))
+                        throw new InterruptedIOException("Copy of %s was aborted".formatted(source));
+                }
+                // The source may have shrunk while copying
+                if (position != size) throw new IOException(
+                    "Copy of %s is incomplete, %d of %d bytes transferred".formatted(source, position, size)
+                );
+            }
+            if (options.verify() && Files.mismatch(source, target) != -1)
+                throw new IOException("Verification of %s failed, the copy differs from the source".formatted(target));
+            Files.setLastModifiedTime(target, attrs.lastModifiedTime());
+            completed = true;
+            return position;
+        } finally {
+            if (!completed) Files.deleteIfExists(target);
+        }
+    }
+
+    /**
+     * Computes the SHA-256 digest of the given file's content.
+     *
+     * @return the digest as a lowercase hex string
+     */
+    public static String hash(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IOException(ex);
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
     public static void delete(Path path) throws IOException {
         Files.walkFileTree(path, new SimpleFileVisitor<>() {
             @Override
@@ -54,6 +145,24 @@ public class FileUtils {
         });
     }
 
+    /**
+     * Deletes the parent directories of the given path as long as they are empty, stopping at the given root which is
+     * never deleted.
+     */
+    public static void deleteEmptyParents(Path path, Path root) throws IOException {
+        Path dir = path.getParent();
+        while (dir != null && dir.startsWith(root) && !dir.equals(root)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                if (stream.iterator().hasNext()) return;
+            } catch (NoSuchFileException ex) {
+                dir = dir.getParent();
+                continue;
+            }
+            Files.delete(dir);
+            dir = dir.getParent();
+        }
+    }
+
     private static void copyDirectory(Path sourceDir, Path targetDir) throws IOException {
         if (!Files.exists(targetDir)) Files.createDirectory(targetDir);
         try (DirectoryStream<Path> paths = Files.newDirectoryStream(sourceDir)) {
@@ -62,7 +171,7 @@ public class FileUtils {
                 if (Files.isDirectory(path)) {
                     copyDirectory(path, targetFile);
                 } else {
-                    Files.copy(path, targetFile, REPLACE_EXISTING, COPY_ATTRIBUTES);
+                    copyFile(path, targetFile);
                 }
             }
         }
@@ -82,9 +191,11 @@ public class FileUtils {
     }
 
     public static String sizeToString(File file) {
-        List<SizeUnit> units = SizeUnit.unitsInDescending();
-        long size = file.length();
+        return sizeToString(file.length());
+    }
 
+    public static String sizeToString(long size) {
+        List<SizeUnit> units = SizeUnit.unitsInDescending();
         if (size < 0)
             throw new IllegalArgumentException("Invalid file size: " + size);
 
@@ -111,6 +222,35 @@ public class FileUtils {
     //================================================================================
     // Internal Classes
     //================================================================================
+    /**
+     * Options for {@link #transfer(Path, Path, TransferOptions, ChunkListener)}.
+     *
+     * @param chunkSize the maximum number of bytes transferred at once
+     * @param verify    whether to compare the target with the source after copying
+     */
+    public record TransferOptions(long chunkSize, boolean verify) {
+        public static final long DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+
+        public TransferOptions {
+            if (chunkSize <= 0) chunkSize = DEFAULT_CHUNK_SIZE;
+        }
+
+        public static TransferOptions defaults() {
+            return new TransferOptions(DEFAULT_CHUNK_SIZE, false);
+        }
+    }
+
+    @FunctionalInterface
+    public interface ChunkListener {
+        /**
+         * Called after each chunk is transferred.
+         *
+         * @param bytes the size of the chunk
+         * @return false to abort the copy
+         */
+        boolean onChunk(long bytes);
+    }
+
     public enum SizeUnit {
         Bytes(1L),
         KB(Bytes.unitBase * 1000),
@@ -13,6 +13,11 @@ import javafx.scene.layout.Region;
 import javafx.scene.layout.StackPane;
 import javafx.util.Duration;
 
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
 public class UIUtils {
 
     //================================================================================
@@ -56,6 +61,32 @@ public class UIUtils {
         SpringHelper.notify(new ShowToastEvent(message));
     }
 
+    public static void showToast(String message, String actionText, Runnable action) {
+        SpringHelper.notify(new ShowToastEvent(message, actionText, action));
+    }
+
+    /**
+     * Reports a failure the user should know about, but which does not require a dialog, typically of a background
+     * task. The stack trace is printed and a toast shows the given message followed by the {@link #reason(Throwable)}.
+     */
+    public static void showError(String message, Throwable ex) {
+        ex.printStackTrace();
+        showToast("%s: %s".formatted(message, reason(ex)));
+    }
+
+    /**
+     * @return the message of the given exception, or of its cause if it just wraps another one, as it's the case for
+     * the exceptions of {@link CompletableFuture}s. If there's no message, the exception's name
+     */
+    public static String reason(Throwable ex) {
+        while ((ex instanceof CompletionException || ex instanceof ExecutionException ||
+            ex instanceof UncheckedIOException) && ex.getCause() != null) {
+            ex = ex.getCause();
+        }
+        String message = ex.getMessage();
+        return (message != null && !message.isBlank()) ? message : ex.getClass().getSimpleName();
+    }
+
     //================================================================================
     // Internal Classes
     //================================================================================
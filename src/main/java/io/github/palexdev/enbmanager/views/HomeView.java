@@ -9,6 +9,9 @@ import io.github.palexdev.enbmanager.components.dialogs.DialogServiceBase.Dialog
 import io.github.palexdev.enbmanager.components.misc.SelectionModel;
 import io.github.palexdev.enbmanager.events.AppReadyEvent;
 import io.github.palexdev.enbmanager.model.ENBManagerModel;
+import io.github.palexdev.enbmanager.model.FileEntry;
+import io.github.palexdev.enbmanager.model.Trash;
+import io.github.palexdev.enbmanager.utils.CopyProgress;
 import io.github.palexdev.enbmanager.utils.UIUtils;
 import io.github.palexdev.enbmanager.views.HomeView.HomePane;
 import io.github.palexdev.enbmanager.views.base.View;
@@ -17,6 +20,7 @@ import io.github.palexdev.mfxcomponents.window.popups.MFXTooltip;
 import io.github.palexdev.mfxcore.observables.When;
 import io.github.palexdev.virtualizedfx.controls.VirtualScrollPane;
 import io.github.palexdev.virtualizedfx.utils.VSPUtils;
+import javafx.application.Platform;
 import javafx.collections.ObservableMap;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
@@ -27,7 +31,9 @@ import javafx.stage.Modality;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
 import java.nio.file.Path;
+import java.util.List;
 
 @Component
 public class HomeView extends View<HomePane> {
@@ -68,7 +74,7 @@ public class HomeView extends View<HomePane> {
         HomePane() {
             // Init table
             table = new FilesTable(model.getFiles());
-            SelectionModel<Path> sModel = table.getSelectionModel();
+            SelectionModel<FileEntry> sModel = table.getSelectionModel();
             VirtualScrollPane vsp = table.wrap();
             VBox.setVgrow(vsp, Priority.ALWAYS);
             Runnable speedAction = () -> {
@@ -116,7 +122,7 @@ public class HomeView extends View<HomePane> {
         }
 
         void save() {
-            ObservableMap<Integer, Path> selection = table.getSelectionModel().getSelection();
+            ObservableMap<Integer, FileEntry> selection = table.getSelectionModel().getSelection();
             ConfigSaveDialog.Result result = dialogs.showConfigSaveDialog(MainView.class,
                 () -> new DialogConfig<ConfigSaveDialog>()
                     .implicitOwner()
@@ -124,14 +130,29 @@ public class HomeView extends View<HomePane> {
                     .setHeaderText("Save config")
                     .setContentText("Config name")
             );
-            boolean saved = model.save(result.name(), selection.values());
-            String message = "Config %s saved".formatted(saved ? "was" : "was not");
-            UIUtils.showToast(message);
-            if (result.deleteOnSave()) model.delete(selection.values());
+            List<Path> files = selection.values().stream().map(FileEntry::path).toList();
+            model.save(result.name(), files).whenComplete((saved, ex) -> Platform.runLater(() -> {
+                boolean success = Boolean.TRUE.equals(saved);
+                if (CopyProgress.isCancellation(ex)) {
+                    UIUtils.showToast("Save was cancelled");
+                } else if (ex != null) {
+                    UIUtils.showError("Config was not saved", ex);
+                } else {
+                    UIUtils.showToast("Config %s saved".formatted(success ? "was" : "was not"));
+                }
+                // Files are deleted only if they are safely stored in the repo
+                if (success && result.deleteOnSave()) {
+                    try {
+                        model.delete(files);
+                    } catch (IOException dex) {
+                        UIUtils.showError("Saved files were not deleted", dex);
+                    }
+                }
+            }));
         }
 
         void delete() {
-            ObservableMap<Integer, Path> selection = table.getSelectionModel().getSelection();
+            ObservableMap<Integer, FileEntry> selection = table.getSelectionModel().getSelection();
             boolean confirm = dialogs.showConfirmDialog(MainView.class, DialogBase.DialogType.WARN, "Delete",
                 () -> new DialogConfig<>()
                     .implicitOwner()
@@ -140,9 +161,18 @@ public class HomeView extends View<HomePane> {
                     .setContentText("Delete selected files?")
             );
             if (!confirm) return;
-            boolean deleted = model.delete(selection.values());
-            String message = "Files %s deleted successfully".formatted(deleted ? "were" : "were not");
-            UIUtils.showToast(message);
+            try {
+                Trash.Item item = model.delete(selection.values().stream().map(FileEntry::path).toList());
+                UIUtils.showToast("Files were deleted successfully", "Undo", () -> {
+                    try {
+                        if (!model.restore(item)) UIUtils.showToast("Files could not be restored anymore");
+                    } catch (IOException ex) {
+                        UIUtils.showError("Files could not be restored", ex);
+                    }
+                });
+            } catch (IOException ex) {
+                UIUtils.showError("Files were not deleted successfully", ex);
+            }
             table.getSelectionModel().clearSelection(); // TODO: upon delete, all elements become selected, FIX ME
         }
     }
@@ -2,10 +2,12 @@ package io.github.palexdev.enbmanager.views;
 
 import io.github.palexdev.enbmanager.ENBManager;
 import io.github.palexdev.enbmanager.SpringHelper;
+import io.github.palexdev.enbmanager.components.ProgressOverlay;
 import io.github.palexdev.enbmanager.components.dialogs.DialogServiceBase;
 import io.github.palexdev.enbmanager.components.dialogs.DialogServiceBase.DialogConfig;
 import io.github.palexdev.enbmanager.components.dialogs.GamesDialog;
 import io.github.palexdev.enbmanager.events.AppReadyEvent;
+import io.github.palexdev.enbmanager.events.RepoProgressEvent;
 import io.github.palexdev.enbmanager.events.ShowToastEvent;
 import io.github.palexdev.enbmanager.events.ViewSwitchEvent;
 import io.github.palexdev.enbmanager.model.ENBManagerModel;
@@ -20,6 +22,7 @@ import io.github.palexdev.enbmanager.views.MainView.MainPane;
 import io.github.palexdev.enbmanager.views.base.View;
 import io.github.palexdev.mfxcomponents.behaviors.MFXIconButtonBehavior;
 import io.github.palexdev.mfxcomponents.controls.MaterialSurface;
+import io.github.palexdev.mfxcomponents.controls.buttons.MFXButton;
 import io.github.palexdev.mfxcomponents.controls.buttons.MFXIconButton;
 import io.github.palexdev.mfxcomponents.theming.Fonts;
 import io.github.palexdev.mfxcomponents.window.popups.MFXTooltip;
@@ -38,10 +41,12 @@ import io.github.palexdev.mfxeffects.animations.motion.M3Motion;
 import io.github.palexdev.mfxresources.fonts.MFXIconWrapper;
 import javafx.animation.Animation;
 import javafx.animation.Interpolator;
+import javafx.application.Platform;
 import javafx.css.PseudoClass;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.Scene;
+import javafx.scene.control.ContentDisplay;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.MouseButton;
@@ -190,9 +195,30 @@ public class MainView extends View<MainPane> {
         switchView(event.getView());
     }
 
+    /**
+     * Toasts can be requested from any thread, they are shown on the JavaFX thread. Requests made before the view is
+     * built are dropped.
+     */
     @EventListener
     public void onShowToast(ShowToastEvent event) {
-        root.showToast(event.getMessage());
+        Runnable show = () -> {
+            if (root == null) return;
+            if (event.hasAction()) {
+                root.showToast(event.getMessage(), event.getActionText(), event.getAction());
+            } else {
+                root.showToast(event.getMessage());
+            }
+        };
+        if (Platform.isFxApplicationThread()) {
+            show.run();
+        } else {
+            Platform.runLater(show);
+        }
+    }
+
+    @EventListener
+    public void onRepoProgress(RepoProgressEvent event) {
+        Platform.runLater(() -> root.progressOverlay.update(event.getProgress(), event.getSnapshot()));
     }
 
     //================================================================================
@@ -200,6 +226,7 @@ public class MainView extends View<MainPane> {
     //================================================================================
     class MainPane extends StackPane {
         private final StackPane content;
+        private final ProgressOverlay progressOverlay;
         private final Label toastLabel;
         private Animation animation;
 
@@ -211,6 +238,7 @@ public class MainView extends View<MainPane> {
             Node header = buildHeader();
             Node sidebar = buildSidebar();
             content = new StackPane();
+            progressOverlay = new ProgressOverlay();
 
             toastLabel = new Label();
             toastLabel.setOpacity(0.0);
@@ -219,7 +247,7 @@ public class MainView extends View<MainPane> {
 
             BorderPane container = new BorderPane();
             container.setTop(header);
-            container.setCenter(content);
+            container.setCenter(new StackPane(content, progressOverlay));
             container.setLeft(sidebar);
 
             getStyleClass().add("main-view");
@@ -359,7 +387,25 @@ public class MainView extends View<MainPane> {
         }
 
         void showToast(String message) {
+            toastLabel.setGraphic(null);
+            toastLabel.setText(message);
+            playToast(1500);
+        }
+
+        void showToast(String message, String actionText, Runnable action) {
+            MFXButton btn = new MFXButton(actionText).text();
+            btn.setOnAction(e -> {
+                hideToast();
+                action.run();
+            });
+            toastLabel.setGraphic(btn);
+            toastLabel.setContentDisplay(ContentDisplay.RIGHT);
             toastLabel.setText(message);
+            // Actionable toasts stay visible for as long as the action makes sense
+            playToast(settings.getUndoWindow().toMillis());
+        }
+
+        void playToast(double delay) {
             requestLayout();
 
             Duration d = M3Motion.MEDIUM4;
@@ -372,7 +418,7 @@ public class MainView extends View<MainPane> {
                     .getAnimation()
                 )
                 .add(TimelineBuilder.build()
-                    .setDelay(1500)
+                    .setDelay(delay)
                     .add(KeyFrames.of(d, toastLabel.opacityProperty(), 0.0, curve))
                     .add(KeyFrames.of(d, toastLabel.translateYProperty(), 0.0, curve))
                     .getAnimation()
@@ -380,6 +426,17 @@ public class MainView extends View<MainPane> {
             animation.play();
         }
 
+        void hideToast() {
+            Duration d = M3Motion.MEDIUM4;
+            Interpolator curve = M3Motion.EMPHASIZED;
+            if (Animations.isPlaying(animation)) animation.stop();
+            animation = TimelineBuilder.build()
+                .add(KeyFrames.of(d, toastLabel.opacityProperty(), 0.0, curve))
+                .add(KeyFrames.of(d, toastLabel.translateYProperty(), 0.0, curve))
+                .getAnimation();
+            animation.play();
+        }
+
         @Override
         protected void layoutChildren() {
             super.layoutChildren();
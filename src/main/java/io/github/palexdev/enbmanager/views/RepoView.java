@@ -8,6 +8,7 @@ import io.github.palexdev.enbmanager.components.dialogs.DialogServiceBase.Dialog
 import io.github.palexdev.enbmanager.components.misc.SelectionModel;
 import io.github.palexdev.enbmanager.model.ENBManagerModel;
 import io.github.palexdev.enbmanager.model.repo.Config;
+import io.github.palexdev.enbmanager.utils.CopyProgress;
 import io.github.palexdev.enbmanager.utils.UIUtils;
 import io.github.palexdev.enbmanager.views.RepoView.RepoPane;
 import io.github.palexdev.enbmanager.views.base.View;
@@ -15,6 +16,7 @@ import io.github.palexdev.mfxcomponents.controls.buttons.MFXIconButton;
 import io.github.palexdev.mfxcore.observables.When;
 import io.github.palexdev.virtualizedfx.controls.VirtualScrollPane;
 import io.github.palexdev.virtualizedfx.utils.VSPUtils;
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.scene.layout.Priority;
@@ -113,9 +115,19 @@ public class RepoView extends View<RepoPane> {
                     .setContentText(sb.toString())
             );
             if (!confirm) return;
-            boolean loaded = model.load(config);
-            String message = "Config %s loaded correctly".formatted(loaded ? "was" : "was not");
-            UIUtils.showToast(message);
+            model.load(config).whenComplete((report, ex) -> Platform.runLater(() -> {
+                if (CopyProgress.isCancellation(ex)) {
+                    UIUtils.showToast("Load was cancelled");
+                } else if (ex != null) {
+                    UIUtils.showError("Config was not loaded correctly", ex);
+                } else if (report != null) {
+                    UIUtils.showToast("Config was loaded correctly (%d files written, %d unchanged)".formatted(
+                        report.stats().files(), report.stats().skippedFiles()
+                    ));
+                } else {
+                    UIUtils.showToast("Config was not loaded, it's not in the repository anymore");
+                }
+            }));
         }
 
         void delete() {
@@ -129,9 +141,25 @@ public class RepoView extends View<RepoPane> {
                     .setContentText("Delete configuration %s and all its files?".formatted(config.name()))
             );
             if (!confirm) return;
-            boolean deleted = model.delete(config);
-            String message = "Config %s deleted correctly".formatted(deleted ? "was" : "was not");
-            UIUtils.showToast(message);
+            model.delete(config).whenComplete((item, ex) -> Platform.runLater(() -> {
+                if (ex != null) {
+                    UIUtils.showError("Config was not deleted correctly", ex);
+                    return;
+                }
+                if (item == null) {
+                    UIUtils.showToast("Config was not deleted, it's not in the repository anymore");
+                    return;
+                }
+                UIUtils.showToast("Config %s deleted".formatted(config.name()), "Undo", () ->
+                    model.restoreConfig(item).whenComplete((restored, rex) -> Platform.runLater(() -> {
+                        if (rex != null) {
+                            UIUtils.showError("Config could not be restored", rex);
+                        } else if (!Boolean.TRUE.equals(restored)) {
+                            UIUtils.showToast("Config could not be restored anymore");
+                        }
+                    }))
+                );
+            }));
         }
     }
 }
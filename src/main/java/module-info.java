@@ -18,7 +18,6 @@ module ENBManager {
 
     //***** Misc *****//
     requires com.github.oshi;
-    requires directory.watcher;
     requires java.prefs;
 
     //***** Exports *****//